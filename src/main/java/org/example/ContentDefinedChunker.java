@@ -0,0 +1,94 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Inhaltsdefinierte Zerlegung mit einem Gear-Rolling-Hash. Chunk-Grenzen hängen nur von den
+ * letzten 64 Bytes ab, sodass eine lokale Änderung nur die umliegenden Chunks verschiebt.
+ */
+final class ContentDefinedChunker {
+	static final int MIN_CHUNK_SIZE = 2 * 1024;
+	static final int MAX_CHUNK_SIZE = 64 * 1024;
+
+	// Oberste BOUNDARY_BITS Bits: ab MIN_CHUNK_SIZE trifft die Maske im Mittel alle 2^BOUNDARY_BITS Bytes
+	private static final int BOUNDARY_BITS = 13;
+	private static final long BOUNDARY_MASK = -1L << (Long.SIZE - BOUNDARY_BITS);
+	// Erwartete Chunk-Größe (rund 10 KB), da vor MIN_CHUNK_SIZE keine Grenze geprüft wird
+	static final int AVERAGE_CHUNK_SIZE = MIN_CHUNK_SIZE + (1 << BOUNDARY_BITS);
+
+	private static final long[] GEAR = generateGearTable();
+
+	private final InputStream in;
+	private final byte[] window = new byte[MAX_CHUNK_SIZE];
+	private int position;
+	private int limit;
+
+	/**
+	 * @param in Eingabestrom; er wird blockweise in einen eigenen Puffer gelesen.
+	 */
+	ContentDefinedChunker(InputStream in) {
+		this.in = in;
+	}
+
+	/**
+	 * Liest den nächsten Chunk in {@code buffer} (mindestens {@link #MAX_CHUNK_SIZE} Bytes groß).
+	 *
+	 * @return Länge des Chunks oder -1 am Ende des Stroms.
+	 */
+	int nextChunk(byte[] buffer) throws IOException {
+		int length = 0;
+		long hash = 0;
+		boolean boundary = false;
+
+		while (!boundary && length < MAX_CHUNK_SIZE) {
+			if (position == limit && !fill()) {
+				break;
+			}
+
+			int end = Math.min(limit, position + MAX_CHUNK_SIZE - length);
+			// Bytes, die bis MIN_CHUNK_SIZE wieder aus dem 64-Bit-Hash geschoben werden, müssen nicht gehasht werden
+			int hashFrom = Math.min(end, position + Math.max(0, MIN_CHUNK_SIZE - Long.SIZE - length));
+			int checkFrom = position + MIN_CHUNK_SIZE - 1 - length;
+			int stop = end;
+
+			for (int i = hashFrom; i < end; i++) {
+				hash = (hash << 1) + GEAR[window[i] & 0xFF];
+				if (i >= checkFrom && (hash & BOUNDARY_MASK) == 0) {
+					stop = i + 1;
+					boundary = true;
+					break;
+				}
+			}
+
+			System.arraycopy(window, position, buffer, length, stop - position);
+			length += stop - position;
+			position = stop;
+		}
+		return length == 0 ? -1 : length;
+	}
+
+	private boolean fill() throws IOException {
+		int read = in.read(window, 0, window.length);
+		if (read < 0) {
+			return false;
+		}
+		position = 0;
+		limit = read;
+		return true;
+	}
+
+	private static long[] generateGearTable() {
+		// Deterministische Zufallswerte (SplitMix64), damit Grenzen über Läufe hinweg stabil bleiben
+		long[] table = new long[256];
+		long seed = 0x9E3779B97F4A7C15L;
+		for (int i = 0; i < table.length; i++) {
+			seed += 0x9E3779B97F4A7C15L;
+			long z = seed;
+			z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+			z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+			table[i] = z ^ (z >>> 31);
+		}
+		return table;
+	}
+}
@@ -0,0 +1,173 @@
+package org.example;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Inkrementelle Verschlüsselung mit inhaltsdefinierten Chunks.
+ *
+ * Die Klartextdatei wird mit dem {@link ContentDefinedChunker} zerlegt; jeder Chunk erhält einen
+ * schlüsselabhängigen DavoHash512-Fingerabdruck und wird unter diesem Namen verschlüsselt abgelegt.
+ * Existiert ein Chunk bereits, wird sein Ciphertext wiederverwendet. Das Manifest (Reihenfolge und Längen
+ * der Chunks) wird bei jedem Lauf mit {@link DavoCrypt4096#encrypt(String)} verschlüsselt und signiert.
+ *
+ * <pre>
+ * storeDirectory/manifest.davo    Verschlüsseltes Manifest
+ * storeDirectory/chunks/&lt;hex&gt;     Verschlüsselte Blöcke eines Chunks
+ * </pre>
+ */
+public final class DavoChunkStore {
+	static final String MANIFEST_FILE = "manifest.davo";
+	static final String CHUNK_DIRECTORY = "chunks";
+
+	private static final String MANIFEST_HEADER = "DAVOCDC 1";
+	private static final int CHUNK_NAME_BYTES = 32;
+	private static final String TEMP_SUFFIX = ".tmp";
+
+	private DavoChunkStore() {
+	}
+
+	/**
+	 * Ergebnis eines inkrementellen Laufs.
+	 */
+	public record Report(long bytesEncrypted, long bytesSkipped, int chunksEncrypted, int chunksReused) {
+		@Override
+		public String toString() {
+			return String.format("%d Bytes verschlüsselt (%d Chunks), %d Bytes übersprungen (%d Chunks wiederverwendet)",
+					bytesEncrypted, chunksEncrypted, bytesSkipped, chunksReused);
+		}
+	}
+
+	/**
+	 * Verschlüsselt {@code source} inkrementell nach {@code storeDirectory}. Nur neue oder geänderte Chunks
+	 * werden verschlüsselt; nicht mehr referenzierte Chunks werden nach dem Schreiben des Manifests entfernt.
+	 *
+	 * @throws IOException Wenn ein Fehler beim Lesen oder Schreiben auftritt.
+	 */
+	public static Report encrypt(DavoCrypt4096 crypto, Path source, Path storeDirectory) throws IOException {
+		Path chunkDirectory = storeDirectory.resolve(CHUNK_DIRECTORY);
+		Files.createDirectories(chunkDirectory);
+
+		StringBuilder manifest = new StringBuilder(MANIFEST_HEADER).append('\n');
+		Set<String> referenced = new HashSet<>();
+		long bytesEncrypted = 0;
+		long bytesSkipped = 0;
+		int chunksEncrypted = 0;
+		int chunksReused = 0;
+
+		try (InputStream in = Files.newInputStream(source)) {
+			ContentDefinedChunker chunker = new ContentDefinedChunker(in);
+			byte[] buffer = new byte[ContentDefinedChunker.MAX_CHUNK_SIZE];
+			int length;
+
+			while ((length = chunker.nextChunk(buffer)) != -1) {
+				byte[] chunk = Arrays.copyOf(buffer, length);
+				String name = chunkName(crypto.fingerprint(chunk));
+				manifest.append(name).append(' ').append(length).append('\n');
+
+				Path chunkPath = chunkDirectory.resolve(name);
+				if (referenced.add(name) && !Files.exists(chunkPath)) {
+					writeChunk(crypto, chunk, chunkPath);
+					bytesEncrypted += length;
+					chunksEncrypted++;
+				} else {
+					bytesSkipped += length;
+					chunksReused++;
+				}
+			}
+		}
+
+		Path manifestPath = storeDirectory.resolve(MANIFEST_FILE);
+		Path manifestTemp = storeDirectory.resolve(MANIFEST_FILE + TEMP_SUFFIX);
+		Files.writeString(manifestTemp, crypto.encrypt(manifest.toString()), StandardCharsets.ISO_8859_1);
+		Files.move(manifestTemp, manifestPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+		removeUnreferencedChunks(chunkDirectory, referenced);
+		return new Report(bytesEncrypted, bytesSkipped, chunksEncrypted, chunksReused);
+	}
+
+	/**
+	 * Setzt die Klartextdatei aus Manifest und Chunks wieder zusammen und prüft jeden Chunk gegen seinen Fingerabdruck.
+	 *
+	 * @throws IOException Wenn ein Fehler beim Lesen oder Schreiben auftritt.
+	 */
+	public static void decrypt(DavoCrypt4096 crypto, Path storeDirectory, Path target) throws IOException {
+		String manifest = crypto.decrypt(Files.readString(storeDirectory.resolve(MANIFEST_FILE), StandardCharsets.ISO_8859_1));
+		String[] lines = manifest.split("\n");
+		if (lines.length == 0 || !lines[0].equals(MANIFEST_HEADER)) {
+			throw new SecurityException("Invalid chunk manifest.");
+		}
+
+		Path chunkDirectory = storeDirectory.resolve(CHUNK_DIRECTORY);
+		try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target))) {
+			for (int i = 1; i < lines.length; i++) {
+				String[] entry = lines[i].split(" ");
+				if (entry.length != 2) {
+					throw new SecurityException("Invalid chunk manifest.");
+				}
+
+				byte[] chunk = readChunk(crypto, chunkDirectory.resolve(entry[0]));
+				if (chunk.length != Integer.parseInt(entry[1])
+						|| !MessageDigest.isEqual(chunkName(crypto.fingerprint(chunk)).getBytes(StandardCharsets.US_ASCII),
+						entry[0].getBytes(StandardCharsets.US_ASCII))) {
+					throw new SecurityException("Chunk " + entry[0] + " failed authentication. Data integrity is compromised.");
+				}
+				out.write(chunk);
+			}
+		}
+	}
+
+	private static void writeChunk(DavoCrypt4096 crypto, byte[] chunk, Path chunkPath) throws IOException {
+		int blockLength = crypto.maxPlaintextBlockLength();
+		Path temp = chunkPath.resolveSibling(chunkPath.getFileName() + TEMP_SUFFIX);
+
+		try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+			for (int offset = 0; offset < chunk.length; offset += blockLength) {
+				out.write(crypto.encryptRawBlock(Arrays.copyOfRange(chunk, offset, Math.min(offset + blockLength, chunk.length))));
+			}
+		}
+
+		// Erst nach vollständigem Schreiben sichtbar machen, damit abgebrochene Läufe keine halben Chunks hinterlassen
+		Files.move(temp, chunkPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private static byte[] readChunk(DavoCrypt4096 crypto, Path chunkPath) throws IOException {
+		byte[] encrypted = Files.readAllBytes(chunkPath);
+		int cipherBlockLength = crypto.cipherBlockLength();
+		if (encrypted.length % cipherBlockLength != 0) {
+			throw new SecurityException("Chunk " + chunkPath.getFileName() + " is truncated. Data integrity is compromised.");
+		}
+
+		ByteArrayOutputStream chunk = new ByteArrayOutputStream(encrypted.length);
+		for (int offset = 0; offset < encrypted.length; offset += cipherBlockLength) {
+			chunk.write(crypto.decryptRawBlock(Arrays.copyOfRange(encrypted, offset, offset + cipherBlockLength)));
+		}
+		return chunk.toByteArray();
+	}
+
+	private static void removeUnreferencedChunks(Path chunkDirectory, Set<String> referenced) throws IOException {
+		try (DirectoryStream<Path> chunks = Files.newDirectoryStream(chunkDirectory)) {
+			for (Path chunk : chunks) {
+				if (!referenced.contains(chunk.getFileName().toString())) {
+					Files.deleteIfExists(chunk);
+				}
+			}
+		}
+	}
+
+	private static String chunkName(byte[] fingerprint) {
+		return DavoHash512.bytesToHex(Arrays.copyOf(fingerprint, CHUNK_NAME_BYTES));
+	}
+}
@@ -7,18 +7,53 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.Base64;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 public class DavoCrypt4096 {
+	// Header-Token vor den Chiffreblöcken; '$' kommt in Base64 nicht vor
+	private static final String HEADER_PREFIX = "$";
+	private static final char FLAG_COMPRESSED = 'z';
+	private static final int COMPRESSION_PROBE_SIZE = 4096;
+	private static final double COMPRESSION_MIN_RATIO = 0.9;
+	// Deflate erreicht höchstens etwa 1032:1; alles darüber kann kein echter Ciphertext sein
+	private static final long MAX_DEFLATE_RATIO = 1032;
+	private static final int DEFAULT_MAX_INFLATED_LENGTH = 64 * 1024 * 1024;
+
 	private final KeyGenerator keyGenerator;
 	private BigInteger publicKey;
 	private BigInteger privateKey;
 	private BigInteger modulus;
+	private boolean compressionEnabled;
+	private int maxInflatedLength = DEFAULT_MAX_INFLATED_LENGTH;
+	// Aus dem privaten Schlüssel abgeleitet; wird erst bei Bedarf berechnet und von loadKeys verworfen
+	private volatile byte[] fingerprintKey;
 
 	public DavoCrypt4096() {
-		keyGenerator = new KeyGenerator();
+		this(KeySize.BITS_4096);
+	}
+
+	public DavoCrypt4096(KeySize keySize) {
+		keyGenerator = new KeyGenerator(keySize);
 		initializeKeys();
 	}
 
+	private DavoCrypt4096(String directoryPath) throws IOException {
+		keyGenerator = null;
+		loadKeys(directoryPath);
+	}
+
+	/**
+	 * Erstellt eine Instanz direkt aus gespeicherten Schlüsseln, ohne vorher ein neues Schlüsselpaar zu generieren.
+	 *
+	 * @param directoryPath Der Pfad des Verzeichnisses, aus dem die Schlüssel geladen werden sollen.
+	 * @throws IOException Wenn ein Fehler beim Lesen der Dateien auftritt.
+	 */
+	public static DavoCrypt4096 fromKeys(String directoryPath) throws IOException {
+		return new DavoCrypt4096(directoryPath);
+	}
+
 	private void initializeKeys() {
 		this.publicKey = keyGenerator.getPublicKey();
 		this.privateKey = keyGenerator.getPrivateKey();
@@ -31,9 +66,16 @@ public class DavoCrypt4096 {
 		byte[] plaintextBytes = plaintext.getBytes(StandardCharsets.UTF_8);
 		int maxPlaintextLength = Math.max(1, modulus.bitLength() / 8 - 42);
 
-		String encryptedData = (plaintextBytes.length > maxPlaintextLength)
-				? splitAndEncrypt(plaintextBytes, maxPlaintextLength)
-				: encryptBlock(plaintextBytes);
+		// Header: Modulusgröße in Bit, gefolgt von optionalen Flags
+		String encryptedData;
+		if (compressionEnabled && plaintextBytes.length <= maxInflatedLength && isCompressible(plaintextBytes)) {
+			encryptedData = HEADER_PREFIX + modulus.bitLength() + FLAG_COMPRESSED + plaintextBytes.length + ":"
+					+ compressAndEncrypt(plaintextBytes, maxPlaintextLength);
+		} else {
+			encryptedData = HEADER_PREFIX + modulus.bitLength() + ":" + ((plaintextBytes.length > maxPlaintextLength)
+					? splitAndEncrypt(plaintextBytes, maxPlaintextLength)
+					: encryptBlock(plaintextBytes));
+		}
 
 		String salt = generateSalt();
 		String signature = generateSignature(plaintextBytes, salt);
@@ -57,6 +99,55 @@ public class DavoCrypt4096 {
 		return encryptedBuilder.substring(0, encryptedBuilder.length() - 1);
 	}
 
+	/**
+	 * Prüft anhand einer Stichprobe, ob sich die Kompression lohnt; bereits komprimierte
+	 * oder zufällige Daten werden unkomprimiert verschlüsselt.
+	 */
+	private boolean isCompressible(byte[] data) {
+		int sampleLength = Math.min(data.length, COMPRESSION_PROBE_SIZE);
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try {
+			deflater.setInput(data, 0, sampleLength);
+			deflater.finish();
+			byte[] buffer = new byte[sampleLength + 64];
+			int compressedLength = 0;
+			while (!deflater.finished()) {
+				compressedLength += deflater.deflate(buffer);
+			}
+			return compressedLength < sampleLength * COMPRESSION_MIN_RATIO;
+		} finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * Komprimiert den Klartext mit Deflate und verschlüsselt jeden vollen Ausgabeblock,
+	 * sobald er erzeugt wurde, ohne den komprimierten Gesamtstrom zwischenzuspeichern.
+	 */
+	private String compressAndEncrypt(byte[] plaintextBytes, int maxBlockSize) {
+		StringBuilder encryptedBuilder = new StringBuilder();
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+		try {
+			deflater.setInput(plaintextBytes);
+			deflater.finish();
+
+			byte[] block = new byte[maxBlockSize];
+			int filled = 0;
+			while (!deflater.finished()) {
+				filled += deflater.deflate(block, filled, maxBlockSize - filled);
+				if (filled == maxBlockSize || (deflater.finished() && filled > 0)) {
+					byte[] raw = (filled == maxBlockSize) ? block : java.util.Arrays.copyOf(block, filled);
+					encryptedBuilder.append(Base64.getEncoder().encodeToString(encryptRawBlock(raw))).append(":");
+					filled = 0;
+				}
+			}
+		} finally {
+			deflater.end();
+		}
+
+		return encryptedBuilder.substring(0, encryptedBuilder.length() - 1);
+	}
+
 	private String encryptBlock(byte[] block) {
 		BigInteger blockInt = new BigInteger(1, block);
 		BigInteger encrypted = blockInt.modPow(publicKey, modulus);
@@ -64,6 +155,15 @@ public class DavoCrypt4096 {
 	}
 
 	public String decrypt(String ciphertext) {
+		String decryptedText = decryptVerified(ciphertext);
+		System.out.println("Integrität und Authentizität erfolgreich geprüft.");
+		return decryptedText;
+	}
+
+	/**
+	 * Wie {@link #decrypt(String)}, aber ohne Konsolenausgabe; für Dienste, die viele Anfragen beantworten.
+	 */
+	String decryptVerified(String ciphertext) {
 		validateInput(ciphertext, "Ciphertext");
 
 		String[] parts = ciphertext.split(":");
@@ -75,9 +175,26 @@ public class DavoCrypt4096 {
 		String receivedSalt = parts[parts.length - 1];
 		String encryptedBase64 = String.join(":", java.util.Arrays.copyOf(parts, parts.length - 2));
 
-		String decryptedText = encryptedBase64.contains(":")
-				? decryptSplitCiphertext(encryptedBase64)
-				: decryptBlock(encryptedBase64);
+		String decryptedText;
+		if (parts[0].startsWith(HEADER_PREFIX)) {
+			if (parts.length < 4) {
+				throw new SecurityException("Invalid ciphertext header.");
+			}
+			long originalLength = parseHeader(parts[0]);
+			String blocks = encryptedBase64.substring(parts[0].length() + 1);
+
+			if (originalLength >= 0) {
+				decryptedText = new String(decryptAndInflate(blocks, originalLength), StandardCharsets.UTF_8);
+			} else {
+				decryptedText = blocks.contains(":")
+						? decryptSplitCiphertext(blocks)
+						: decryptBlock(blocks);
+			}
+		} else {
+			decryptedText = encryptedBase64.contains(":")
+					? decryptSplitCiphertext(encryptedBase64)
+					: decryptBlock(encryptedBase64);
+		}
 
 		byte[] decryptedBytes = decryptedText.getBytes(StandardCharsets.UTF_8);
 		String calculatedSignature = generateSignature(decryptedBytes, receivedSalt);
@@ -86,7 +203,6 @@ public class DavoCrypt4096 {
 			throw new SecurityException("Signature validation failed. Data integrity is compromised.");
 		}
 
-		System.out.println("Integrität und Authentizität erfolgreich geprüft.");
 		return decryptedText;
 	}
 
@@ -106,6 +222,92 @@ public class DavoCrypt4096 {
 		return decryptedStream.toString(StandardCharsets.UTF_8);
 	}
 
+	/**
+	 * Prüft die Modulusgröße im Header gegen den geladenen Schlüssel.
+	 * Header: {@code $<Bits>} oder {@code $<Bits>z<Originallänge>} für komprimierte Daten.
+	 *
+	 * @return Originallänge der komprimierten Daten oder -1, wenn nicht komprimiert wurde.
+	 */
+	private long parseHeader(String header) {
+		int digitsEnd = skipDigits(header, HEADER_PREFIX.length());
+		if (digitsEnd > HEADER_PREFIX.length()) {
+			long headerBits = parseHeaderNumber(header.substring(HEADER_PREFIX.length(), digitsEnd));
+			if (headerBits != modulus.bitLength()) {
+				throw new SecurityException("Ciphertext was encrypted for a " + headerBits
+						+ "-bit key, but the loaded key has " + modulus.bitLength() + " bits.");
+			}
+		}
+
+		if (digitsEnd == header.length()) {
+			return -1;
+		}
+		if (header.charAt(digitsEnd) != FLAG_COMPRESSED) {
+			throw new SecurityException("Invalid ciphertext header.");
+		}
+
+		int lengthEnd = skipDigits(header, digitsEnd + 1);
+		if (lengthEnd == digitsEnd + 1 || lengthEnd != header.length()) {
+			throw new SecurityException("Invalid ciphertext header.");
+		}
+		return parseHeaderNumber(header.substring(digitsEnd + 1, lengthEnd));
+	}
+
+	private static int skipDigits(String value, int start) {
+		int end = start;
+		while (end < value.length() && value.charAt(end) >= '0' && value.charAt(end) <= '9') {
+			end++;
+		}
+		return end;
+	}
+
+	private static long parseHeaderNumber(String digits) {
+		try {
+			return Long.parseLong(digits);
+		} catch (NumberFormatException e) {
+			throw new SecurityException("Invalid ciphertext header.", e);
+		}
+	}
+
+	/**
+	 * Entschlüsselt und entpackt die Blöcke. Die Ausgabe ist auf die im Header angegebene Originallänge
+	 * begrenzt, die ihrerseits durch {@link #setMaxInflatedLength(int)} und das maximale Deflate-Verhältnis
+	 * gedeckelt ist; so kann ein kleiner präparierter Ciphertext vor der Signaturprüfung keinen Speicher erschöpfen.
+	 */
+	private byte[] decryptAndInflate(String ciphertext, long originalLength) {
+		if (originalLength > maxInflatedLength || originalLength > ciphertext.length() * MAX_DEFLATE_RATIO) {
+			throw new SecurityException("Compressed data exceeds the inflation limit. Data integrity is compromised.");
+		}
+
+		Inflater inflater = new Inflater();
+		ByteArrayOutputStream inflatedStream = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+
+		try {
+			for (String block : ciphertext.split(":")) {
+				inflater.setInput(decryptRawBlock(Base64.getDecoder().decode(block)));
+				while (!inflater.needsInput() && !inflater.finished()) {
+					int inflated = inflater.inflate(buffer);
+					if (inflated == 0 && inflater.needsDictionary()) {
+						throw new SecurityException("Compressed data is corrupt. Data integrity is compromised.");
+					}
+					if (inflatedStream.size() + (long) inflated > originalLength) {
+						throw new SecurityException("Compressed data exceeds its declared length. Data integrity is compromised.");
+					}
+					inflatedStream.write(buffer, 0, inflated);
+				}
+			}
+			if (!inflater.finished() || inflatedStream.size() != originalLength) {
+				throw new SecurityException("Compressed data is truncated. Data integrity is compromised.");
+			}
+		} catch (DataFormatException e) {
+			throw new SecurityException("Compressed data is corrupt. Data integrity is compromised.", e);
+		} finally {
+			inflater.end();
+		}
+
+		return inflatedStream.toByteArray();
+	}
+
 	private String decryptBlock(String encryptedBase64) {
 		byte[] decryptedBytes = decryptBlockToBytes(encryptedBase64);
 		return new String(decryptedBytes, StandardCharsets.UTF_8);
@@ -218,6 +420,71 @@ public class DavoCrypt4096 {
 		Files.writeString(path, decryptedData, StandardCharsets.ISO_8859_1, StandardOpenOption.TRUNCATE_EXISTING);
 	}
 
+	/**
+	 * Signiert beliebige Daten über ihren DavoHash512-Digest; prüfbar mit dem Public Key.
+	 *
+	 * @param data Zu signierende Daten.
+	 */
+	public byte[] sign(byte[] data) {
+		return signDigest(DavoHash512.hash(data));
+	}
+
+	/**
+	 * Prüft eine mit {@link #sign(byte[])} erzeugte Signatur.
+	 *
+	 * @param data      Signierte Daten.
+	 * @param signature Zu prüfende Signatur.
+	 */
+	public boolean verify(byte[] data, byte[] signature) {
+		return verifyDigest(DavoHash512.hash(data), signature);
+	}
+
+	/**
+	 * Verschlüsselt eine Datei in das seekbare Blockformat, das wahlfreien Lesezugriff erlaubt.
+	 *
+	 * @param sourcePath Pfad der Klartextdatei.
+	 * @param targetPath Pfad der verschlüsselten Zieldatei.
+	 * @throws IOException Wenn ein Fehler beim Lesen oder Schreiben auftritt.
+	 */
+	public void encryptFileSeekable(String sourcePath, String targetPath) throws IOException {
+		DavoSeekableFile.write(this, Path.of(sourcePath), Path.of(targetPath), DavoSeekableFile.DEFAULT_BLOCKS_PER_SEGMENT);
+	}
+
+	/**
+	 * Öffnet eine seekbar verschlüsselte Datei; gelesen werden nur die tatsächlich berührten Blöcke.
+	 *
+	 * @param filePath Pfad der verschlüsselten Datei.
+	 * @throws IOException Wenn ein Fehler beim Lesen auftritt.
+	 */
+	public DavoSeekableChannel openSeekable(String filePath) throws IOException {
+		return DavoSeekableChannel.open(this, Path.of(filePath));
+	}
+
+	/**
+	 * Verschlüsselt eine Datei inkrementell: nur neue oder geänderte inhaltsdefinierte Chunks werden
+	 * verschlüsselt, unveränderte Chunks aus einem früheren Lauf werden wiederverwendet.
+	 *
+	 * @param filePath       Pfad der Klartextdatei.
+	 * @param storeDirectory Verzeichnis für Manifest und verschlüsselte Chunks.
+	 * @throws IOException Wenn ein Fehler beim Lesen oder Schreiben auftritt.
+	 */
+	public DavoChunkStore.Report encryptFileIncremental(String filePath, String storeDirectory) throws IOException {
+		DavoChunkStore.Report report = DavoChunkStore.encrypt(this, Path.of(filePath), Path.of(storeDirectory));
+		System.out.println("Inkrementell verschlüsselt: " + report);
+		return report;
+	}
+
+	/**
+	 * Stellt eine inkrementell verschlüsselte Datei wieder her.
+	 *
+	 * @param storeDirectory Verzeichnis mit Manifest und verschlüsselten Chunks.
+	 * @param targetPath     Pfad der wiederhergestellten Klartextdatei.
+	 * @throws IOException Wenn ein Fehler beim Lesen oder Schreiben auftritt.
+	 */
+	public void decryptFileIncremental(String storeDirectory, String targetPath) throws IOException {
+		DavoChunkStore.decrypt(this, Path.of(storeDirectory), Path.of(targetPath));
+	}
+
 	/**
 	 * Speichert die aktuellen Schlüssel (Public, Private, Modulus) in den angegebenen Pfad.
 	 *
@@ -228,11 +495,13 @@ public class DavoCrypt4096 {
 		Path publicKeyPath = Path.of(directoryPath, "public.key");
 		Path privateKeyPath = Path.of(directoryPath, "private.key");
 		Path modulusPath = Path.of(directoryPath, "modulus.key");
+		Path keySizePath = Path.of(directoryPath, "keysize.key");
 
 		// Speichern der Schlüssel als Textdateien
 		Files.writeString(publicKeyPath, publicKey.toString(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
 		Files.writeString(privateKeyPath, privateKey.toString(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
 		Files.writeString(modulusPath, modulus.toString(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+		Files.writeString(keySizePath, String.valueOf(modulus.bitLength()), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
 
 		System.out.println("Keys erfolgreich gespeichert in: " + directoryPath);
 	}
@@ -247,20 +516,146 @@ public class DavoCrypt4096 {
 		Path publicKeyPath = Path.of(directoryPath, "public.key");
 		Path privateKeyPath = Path.of(directoryPath, "private.key");
 		Path modulusPath = Path.of(directoryPath, "modulus.key");
+		Path keySizePath = Path.of(directoryPath, "keysize.key");
 
 		// Lesen der Schlüssel aus den Dateien
 		String publicKeyString = Files.readString(publicKeyPath).trim();
 		String privateKeyString = Files.readString(privateKeyPath).trim();
 		String modulusString = Files.readString(modulusPath).trim();
 
+		BigInteger loadedModulus = new BigInteger(modulusString);
+
+		// Ältere Schlüsselverzeichnisse enthalten keine keysize.key
+		if (Files.exists(keySizePath)) {
+			int storedBits = Integer.parseInt(Files.readString(keySizePath).trim());
+			if (storedBits != loadedModulus.bitLength()) {
+				throw new IOException("Stored key size " + storedBits + " does not match the modulus in: " + directoryPath);
+			}
+		}
+
 		// Initialisierung der Schlüssel
 		this.publicKey = new BigInteger(publicKeyString);
 		this.privateKey = new BigInteger(privateKeyString);
-		this.modulus = new BigInteger(modulusString);
+		this.modulus = loadedModulus;
+		this.fingerprintKey = null;
 
 		System.out.println("Keys erfolgreich geladen aus: " + directoryPath);
 	}
 
+	/**
+	 * Maximale Anzahl Klartext-Bytes pro Block, identisch zur Blockgröße von {@link #encrypt(String)}.
+	 */
+	int maxPlaintextBlockLength() {
+		return Math.max(1, modulus.bitLength() / 8 - 42);
+	}
+
+	/**
+	 * Länge eines verschlüsselten Blocks in Bytes (Byte-Länge des Modulus).
+	 */
+	int cipherBlockLength() {
+		return (modulus.bitLength() + 7) / 8;
+	}
+
+	/**
+	 * Verschlüsselt einen Rohblock zu genau {@link #cipherBlockLength()} Bytes.
+	 * Ein vorangestelltes Markierungsbyte erhält führende Nullbytes des Klartexts.
+	 */
+	byte[] encryptRawBlock(byte[] block) {
+		if (block.length > maxPlaintextBlockLength()) {
+			throw new IllegalArgumentException("Block exceeds maximum plaintext length.");
+		}
+
+		byte[] marked = new byte[block.length + 1];
+		marked[0] = 0x01;
+		System.arraycopy(block, 0, marked, 1, block.length);
+
+		BigInteger encrypted = new BigInteger(1, marked).modPow(publicKey, modulus);
+		return toFixedLength(encrypted, cipherBlockLength());
+	}
+
+	/**
+	 * Entschlüsselt einen mit {@link #encryptRawBlock(byte[])} erzeugten Block.
+	 */
+	byte[] decryptRawBlock(byte[] cipherBlock) {
+		byte[] decrypted = new BigInteger(1, cipherBlock).modPow(privateKey, modulus).toByteArray();
+
+		int start = (decrypted.length > 0 && decrypted[0] == 0) ? 1 : 0;
+		if (decrypted.length <= start || decrypted[start] != 0x01) {
+			throw new SecurityException("Invalid block marker. Data integrity is compromised.");
+		}
+		return java.util.Arrays.copyOfRange(decrypted, start + 1, decrypted.length);
+	}
+
+	/**
+	 * Signiert einen Digest mit dem privaten Schlüssel; prüfbar mit {@link #verifyDigest(byte[], byte[])}.
+	 */
+	byte[] signDigest(byte[] digest) {
+		BigInteger signature = new BigInteger(1, digest).mod(modulus).modPow(privateKey, modulus);
+		return toFixedLength(signature, cipherBlockLength());
+	}
+
+	boolean verifyDigest(byte[] digest, byte[] signature) {
+		BigInteger recovered = new BigInteger(1, signature).modPow(publicKey, modulus);
+		byte[] expected = toFixedLength(new BigInteger(1, digest).mod(modulus), cipherBlockLength());
+		return java.security.MessageDigest.isEqual(expected, toFixedLength(recovered, cipherBlockLength()));
+	}
+
+	/**
+	 * Schlüsselabhängiger DavoHash512-Fingerabdruck. Ohne privaten Schlüssel lässt sich daraus
+	 * nicht bestätigen, ob ein bekannter Klartext enthalten ist.
+	 */
+	byte[] fingerprint(byte[] data) {
+		byte[] key = fingerprintKey;
+		if (key == null) {
+			key = DavoHash512.hash(("DavoFingerprint:" + privateKey).getBytes(StandardCharsets.UTF_8));
+			fingerprintKey = key;
+		}
+		byte[] keyed = new byte[key.length + data.length];
+		System.arraycopy(key, 0, keyed, 0, key.length);
+		System.arraycopy(data, 0, keyed, key.length, data.length);
+		return DavoHash512.hash(keyed);
+	}
+
+	private static byte[] toFixedLength(BigInteger value, int length) {
+		byte[] raw = value.toByteArray();
+		byte[] fixed = new byte[length];
+		int copy = Math.min(raw.length, length);
+		System.arraycopy(raw, raw.length - copy, fixed, length - copy, copy);
+		return fixed;
+	}
+
+	/**
+	 * Aktiviert die Deflate-Kompression vor der Blockverschlüsselung. Ob komprimiert wurde,
+	 * steht im Ciphertext-Header, sodass {@link #decrypt(String)} beide Formate verarbeitet.
+	 */
+	public void setCompressionEnabled(boolean compressionEnabled) {
+		this.compressionEnabled = compressionEnabled;
+	}
+
+	public boolean isCompressionEnabled() {
+		return compressionEnabled;
+	}
+
+	/**
+	 * Obergrenze für entpackte Daten beim Entschlüsseln; größere Klartexte werden beim Verschlüsseln
+	 * nicht komprimiert. Standard: 64 MB.
+	 */
+	public void setMaxInflatedLength(int maxInflatedLength) {
+		if (maxInflatedLength < 1) {
+			throw new IllegalArgumentException("Maximum inflated length must be positive.");
+		}
+		this.maxInflatedLength = maxInflatedLength;
+	}
+
+	/**
+	 * Modulusgröße der aktuell geladenen Schlüssel.
+	 *
+	 * @throws IllegalArgumentException Wenn der Modulus keiner unterstützten Größe entspricht.
+	 */
+	public KeySize getKeySize() {
+		return KeySize.ofModulus(modulus);
+	}
+
 	public BigInteger getPublicKey() {
 		return publicKey;
 	}
@@ -0,0 +1,157 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Schlanker Client für den {@link DavoCryptDaemon}. Eine Verbindung kann von mehreren Threads
+ * gleichzeitig genutzt werden; offene Anfragen werden über ihre Anfrage-ID zugeordnet.
+ */
+public class DavoCryptClient implements DavoCryptService, Closeable {
+	private static final byte[][] NO_FIELDS = new byte[0][];
+
+	private final SocketChannel channel;
+	private final DataInputStream in;
+	private final DataOutputStream out;
+	private final AtomicInteger nextRequestId = new AtomicInteger();
+	private final Map<Integer, CompletableFuture<DavoCryptProtocol.Response>> pending = new ConcurrentHashMap<>();
+	private volatile boolean disconnected;
+
+	private DavoCryptClient(SocketChannel channel) {
+		this.channel = channel;
+		this.in = new DataInputStream(new BufferedInputStream(DavoCryptProtocol.inputStream(channel)));
+		this.out = new DataOutputStream(new BufferedOutputStream(DavoCryptProtocol.outputStream(channel)));
+		Thread.ofPlatform().name("davo-client-reader").daemon(true).start(this::readLoop);
+	}
+
+	/**
+	 * Verbindet sich mit dem Daemon-Socket.
+	 *
+	 * @param socketPath Pfad des Unix Domain Sockets.
+	 * @throws IOException Wenn keine Verbindung aufgebaut werden kann.
+	 */
+	public static DavoCryptClient connect(Path socketPath) throws IOException {
+		SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+		try {
+			channel.connect(UnixDomainSocketAddress.of(socketPath));
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+		return new DavoCryptClient(channel);
+	}
+
+	@Override
+	public String encrypt(String keyId, String plaintext) throws IOException {
+		byte[] result = call(DavoCryptProtocol.OP_ENCRYPT, keyId, plaintext.getBytes(StandardCharsets.UTF_8));
+		return new String(result, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public String decrypt(String keyId, String ciphertext) throws IOException {
+		byte[] result = call(DavoCryptProtocol.OP_DECRYPT, keyId, ciphertext.getBytes(StandardCharsets.UTF_8));
+		return new String(result, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public byte[] sign(String keyId, byte[] data) throws IOException {
+		return call(DavoCryptProtocol.OP_SIGN, keyId, data);
+	}
+
+	@Override
+	public boolean verify(String keyId, byte[] data, byte[] signature) throws IOException {
+		byte[] result = call(DavoCryptProtocol.OP_VERIFY, keyId, data, signature);
+		return result.length == 1 && result[0] == 1;
+	}
+
+	@Override
+	public byte[] hash(byte[] data) throws IOException {
+		return call(DavoCryptProtocol.OP_HASH, "", data);
+	}
+
+	private byte[] call(byte opcode, String keyId, byte[]... fields) throws IOException {
+		int requestId = nextRequestId.incrementAndGet();
+		CompletableFuture<DavoCryptProtocol.Response> future = new CompletableFuture<>();
+		pending.put(requestId, future);
+		if (disconnected) {
+			pending.remove(requestId);
+			throw new IOException("Daemon closed the connection.");
+		}
+
+		try {
+			synchronized (out) {
+				DavoCryptProtocol.writeRequest(out, new DavoCryptProtocol.Request(requestId, opcode, keyId,
+						fields.length == 0 ? NO_FIELDS : fields));
+			}
+		} catch (IOException e) {
+			pending.remove(requestId);
+			throw e;
+		}
+
+		DavoCryptProtocol.Response response;
+		try {
+			response = future.get();
+		} catch (InterruptedException e) {
+			pending.remove(requestId);
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for the daemon.", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Connection to the daemon was lost.", e.getCause());
+		}
+
+		String message = new String(response.payload(), StandardCharsets.UTF_8);
+		switch (response.status()) {
+			case DavoCryptProtocol.STATUS_OK:
+				return response.payload();
+			case DavoCryptProtocol.STATUS_SECURITY_ERROR:
+				throw new SecurityException(message);
+			case DavoCryptProtocol.STATUS_INVALID_ARGUMENT:
+				throw new IllegalArgumentException(message);
+			default:
+				throw new IOException(message);
+		}
+	}
+
+	private void readLoop() {
+		IOException failure = new IOException("Daemon closed the connection.");
+		try {
+			DavoCryptProtocol.Response response;
+			while ((response = DavoCryptProtocol.readResponse(in)) != null) {
+				CompletableFuture<DavoCryptProtocol.Response> future = pending.remove(response.requestId());
+				if (future != null) {
+					future.complete(response);
+				}
+			}
+		} catch (IOException e) {
+			failure = e;
+		}
+
+		// Alle noch offenen Anfragen abbrechen
+		disconnected = true;
+		for (Integer requestId : pending.keySet()) {
+			CompletableFuture<DavoCryptProtocol.Response> future = pending.remove(requestId);
+			if (future != null) {
+				future.completeExceptionally(failure);
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
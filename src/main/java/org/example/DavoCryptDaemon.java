@@ -0,0 +1,376 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Langlaufender Daemon, der geladene Schlüsselkontexte warm hält und Anfragen über einen
+ * Unix Domain Socket beantwortet ({@link DavoCryptProtocol}).
+ *
+ * Jede Verbindung wird von einem eigenen Leser bedient, der Anfragen in eine gemeinsame Warteschlange
+ * stellt. Ein Dispatcher entnimmt gleichzeitig wartende Anfragen als Batch und verteilt sie in Teilstücken
+ * auf den Worker-Pool, sodass pro Übergabe mehrere Operationen abgearbeitet werden.
+ *
+ * Pro Verbindung sind höchstens {@value #MAX_IN_FLIGHT_PER_CONNECTION} Anfragen gleichzeitig offen. Zusätzlich
+ * dürfen alle offenen Anfrage-Frames zusammen höchstens {@value #MAX_IN_FLIGHT_BYTES} Bytes belegen; der Leser
+ * reserviert die Länge eines Frames, bevor er ihn anlegt, und gibt sie nach dem Senden der Antwort frei. Ist ein
+ * Limit erreicht, liest der Leser nicht weiter, und schnelle Clients werden über den Socket gebremst.
+ *
+ * Aufruf: {@code java org.example.Main daemon <socket> <keyId>=<Schlüsselverzeichnis> ...}
+ */
+public class DavoCryptDaemon implements Closeable {
+	private static final int MAX_BATCH_SIZE = 64;
+	private static final int MAX_IN_FLIGHT_PER_CONNECTION = 16;
+	// Muss mindestens einen Frame maximaler Länge fassen
+	private static final int MAX_IN_FLIGHT_BYTES = 4 * DavoCryptProtocol.MAX_FRAME_LENGTH;
+	// Dateityp-Bits aus st_mode
+	private static final int S_IFMT = 0170000;
+	private static final int S_IFSOCK = 0140000;
+
+	private final Path socketPath;
+	private final DavoCryptService service;
+	private final int workerCount;
+	private final ExecutorService workers;
+	private final BlockingQueue<PendingRequest> queue = new LinkedBlockingQueue<>();
+	private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+	private final Semaphore inFlightBytes = new Semaphore(MAX_IN_FLIGHT_BYTES, true);
+	private final CountDownLatch stopped = new CountDownLatch(1);
+
+	private ServerSocketChannel server;
+	private Thread dispatcher;
+	private volatile boolean running;
+
+	public DavoCryptDaemon(Path socketPath, DavoCryptService service, int workerCount) {
+		if (workerCount < 1) {
+			throw new IllegalArgumentException("Daemon needs at least one worker.");
+		}
+		this.socketPath = socketPath;
+		this.service = service;
+		this.workerCount = workerCount;
+		this.workers = Executors.newFixedThreadPool(workerCount);
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (args.length < 2) {
+			System.err.println("Usage: daemon <socket> <keyId>=<keyDirectory> ...");
+			return;
+		}
+
+		LocalDavoCryptService service = new LocalDavoCryptService();
+		for (int i = 1; i < args.length; i++) {
+			String[] context = args[i].split("=", 2);
+			if (context.length != 2) {
+				throw new IllegalArgumentException("Invalid key context: " + args[i]);
+			}
+			service.loadKeyContext(context[0], context[1]);
+		}
+
+		DavoCryptDaemon daemon = new DavoCryptDaemon(Path.of(args[0]), service, Runtime.getRuntime().availableProcessors());
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			try {
+				daemon.close();
+			} catch (IOException e) {
+				System.err.println("Error: " + e.getMessage());
+			}
+		}));
+
+		daemon.start();
+		System.out.println("Daemon lauscht auf: " + args[0]);
+		daemon.awaitTermination();
+	}
+
+	/**
+	 * Bindet den Socket und startet Annahme und Dispatcher.
+	 *
+	 * Der Zugriffsschutz liegt beim Verzeichnis des Sockets: Es wird bei Bedarf mit {@code rwx------} angelegt,
+	 * ein vorhandenes Verzeichnis darf für Gruppe und andere keine Rechte haben. So ist der Socket schon ab
+	 * {@code bind} nur für den eigenen Benutzer erreichbar. Ein vorhandener Pfad wird nur ersetzt, wenn er
+	 * ein verwaister Socket ist.
+	 *
+	 * @throws IOException Wenn das Verzeichnis unsicher ist, der Pfad belegt ist oder der Socket nicht gebunden werden kann.
+	 */
+	public synchronized void start() throws IOException {
+		if (running) {
+			throw new IllegalStateException("Daemon is already running.");
+		}
+
+		prepareSocketDirectory(socketPath.toAbsolutePath().getParent());
+		removeStaleSocket(socketPath);
+		server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+		server.bind(UnixDomainSocketAddress.of(socketPath));
+		try {
+			Files.setPosixFilePermissions(socketPath, PosixFilePermissions.fromString("rw-------"));
+		} catch (UnsupportedOperationException e) {
+			// Kein POSIX-Dateisystem: Zugriffsschutz liegt beim Verzeichnis
+		}
+
+		running = true;
+		Thread.ofPlatform().name("davo-daemon-accept").daemon(true).start(this::acceptLoop);
+		dispatcher = Thread.ofPlatform().name("davo-daemon-dispatch").daemon(true).start(this::dispatchLoop);
+	}
+
+	private static void prepareSocketDirectory(Path directory) throws IOException {
+		if (Files.notExists(directory, LinkOption.NOFOLLOW_LINKS)) {
+			try {
+				Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+			} catch (UnsupportedOperationException e) {
+				Files.createDirectories(directory);
+			}
+			return;
+		}
+
+		Set<PosixFilePermission> permissions;
+		try {
+			permissions = Files.getPosixFilePermissions(directory);
+		} catch (UnsupportedOperationException e) {
+			// Kein POSIX-Dateisystem: Rechte lassen sich nicht prüfen
+			return;
+		}
+		for (PosixFilePermission permission : permissions) {
+			if (permission != PosixFilePermission.OWNER_READ && permission != PosixFilePermission.OWNER_WRITE
+					&& permission != PosixFilePermission.OWNER_EXECUTE) {
+				throw new IOException("Socket directory is accessible to other users (expected rwx------): " + directory);
+			}
+		}
+	}
+
+	private static void removeStaleSocket(Path path) throws IOException {
+		if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+			return;
+		}
+		if (!isSocket(path)) {
+			throw new IOException("Refusing to replace a file that is not a socket: " + path);
+		}
+
+		try {
+			SocketChannel.open(UnixDomainSocketAddress.of(path)).close();
+		} catch (ConnectException e) {
+			// Niemand lauscht mehr: Überrest eines beendeten Daemons
+			Files.delete(path);
+			return;
+		}
+		throw new IOException("Another daemon is already listening on: " + path);
+	}
+
+	private static boolean isSocket(Path path) throws IOException {
+		try {
+			int mode = (Integer) Files.getAttribute(path, "unix:mode", LinkOption.NOFOLLOW_LINKS);
+			return (mode & S_IFMT) == S_IFSOCK;
+		} catch (UnsupportedOperationException | IllegalArgumentException e) {
+			return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).isOther();
+		}
+	}
+
+	public void awaitTermination() throws InterruptedException {
+		stopped.await();
+	}
+
+	private void acceptLoop() {
+		while (running) {
+			try {
+				Connection connection = new Connection(server.accept());
+				connections.add(connection);
+				Thread.ofVirtual().start(() -> readLoop(connection));
+			} catch (IOException e) {
+				if (running) {
+					System.err.println("Error: " + e.getMessage());
+				}
+			}
+		}
+	}
+
+	private void readLoop(Connection connection) {
+		try {
+			while (true) {
+				// Erst lesen, wenn die Verbindung wieder Kapazität hat; die Freigabe erfolgt nach dem Senden der Antwort
+				connection.inFlight.acquire();
+				int frameLength = DavoCryptProtocol.readFrameLength(connection.in);
+				if (frameLength < 0) {
+					// Die Gegenseite hat nur ihre Schreibrichtung geschlossen: offene Antworten noch zustellen
+					connection.inFlight.release();
+					awaitResponses(connection);
+					break;
+				}
+
+				inFlightBytes.acquire(frameLength);
+				DavoCryptProtocol.Request request;
+				try {
+					request = DavoCryptProtocol.readRequest(connection.in, frameLength);
+				} catch (IOException e) {
+					inFlightBytes.release(frameLength);
+					throw e;
+				}
+				queue.put(new PendingRequest(connection, request, frameLength));
+			}
+		} catch (IOException e) {
+			if (running) {
+				System.err.println("Error: " + e.getMessage());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			connections.remove(connection);
+			connection.close();
+		}
+	}
+
+	private void awaitResponses(Connection connection) throws InterruptedException {
+		while (running && !connection.inFlight.tryAcquire(MAX_IN_FLIGHT_PER_CONNECTION, 100, TimeUnit.MILLISECONDS)) {
+			// Beim Beenden des Daemons nicht auf Anfragen warten, die nie mehr bearbeitet werden
+		}
+	}
+
+	private void dispatchLoop() {
+		List<PendingRequest> batch = new ArrayList<>(MAX_BATCH_SIZE);
+		while (running) {
+			try {
+				batch.add(queue.take());
+			} catch (InterruptedException e) {
+				return;
+			}
+			queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+
+			// Batch gleichmäßig auf die Worker verteilen
+			int sliceSize = (batch.size() + workerCount - 1) / workerCount;
+			for (int start = 0; start < batch.size(); start += sliceSize) {
+				List<PendingRequest> slice = List.copyOf(batch.subList(start, Math.min(start + sliceSize, batch.size())));
+				try {
+					workers.execute(() -> slice.forEach(this::handle));
+				} catch (RejectedExecutionException e) {
+					// Der Daemon wird gerade beendet
+					return;
+				}
+			}
+			batch.clear();
+		}
+	}
+
+	private void handle(PendingRequest pending) {
+		DavoCryptProtocol.Request request = pending.request();
+		DavoCryptProtocol.Response response;
+		try {
+			response = new DavoCryptProtocol.Response(request.requestId(), DavoCryptProtocol.STATUS_OK, execute(request));
+		} catch (SecurityException e) {
+			response = errorResponse(request, DavoCryptProtocol.STATUS_SECURITY_ERROR, e);
+		} catch (IllegalArgumentException e) {
+			response = errorResponse(request, DavoCryptProtocol.STATUS_INVALID_ARGUMENT, e);
+		} catch (IOException | RuntimeException e) {
+			response = errorResponse(request, DavoCryptProtocol.STATUS_IO_ERROR, e);
+		}
+		pending.connection().send(response);
+		inFlightBytes.release(pending.frameLength());
+	}
+
+	private byte[] execute(DavoCryptProtocol.Request request) throws IOException {
+		byte[][] fields = request.fields();
+		switch (request.opcode()) {
+			case DavoCryptProtocol.OP_ENCRYPT:
+				requireFields(fields, 1);
+				return service.encrypt(request.keyId(), new String(fields[0], StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+			case DavoCryptProtocol.OP_DECRYPT:
+				requireFields(fields, 1);
+				return service.decrypt(request.keyId(), new String(fields[0], StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+			case DavoCryptProtocol.OP_SIGN:
+				requireFields(fields, 1);
+				return service.sign(request.keyId(), fields[0]);
+			case DavoCryptProtocol.OP_VERIFY:
+				requireFields(fields, 2);
+				return new byte[]{(byte) (service.verify(request.keyId(), fields[0], fields[1]) ? 1 : 0)};
+			case DavoCryptProtocol.OP_HASH:
+				requireFields(fields, 1);
+				return service.hash(fields[0]);
+			default:
+				throw new IllegalArgumentException("Unknown opcode: " + request.opcode());
+		}
+	}
+
+	private static void requireFields(byte[][] fields, int count) {
+		if (fields.length != count) {
+			throw new IllegalArgumentException("Expected " + count + " fields but got " + fields.length + ".");
+		}
+	}
+
+	private static DavoCryptProtocol.Response errorResponse(DavoCryptProtocol.Request request, byte status, Exception e) {
+		String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+		return new DavoCryptProtocol.Response(request.requestId(), status, message.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (!running) {
+			return;
+		}
+		running = false;
+
+		server.close();
+		dispatcher.interrupt();
+		workers.shutdown();
+		for (Connection connection : connections) {
+			connection.close();
+		}
+		Files.deleteIfExists(socketPath);
+		stopped.countDown();
+	}
+
+	private record PendingRequest(Connection connection, DavoCryptProtocol.Request request, int frameLength) {
+	}
+
+	private static final class Connection {
+		private final SocketChannel channel;
+		private final DataInputStream in;
+		private final DataOutputStream out;
+		private final Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT_PER_CONNECTION);
+
+		Connection(SocketChannel channel) {
+			this.channel = channel;
+			this.in = new DataInputStream(new BufferedInputStream(DavoCryptProtocol.inputStream(channel)));
+			this.out = new DataOutputStream(new BufferedOutputStream(DavoCryptProtocol.outputStream(channel)));
+		}
+
+		synchronized void send(DavoCryptProtocol.Response response) {
+			try {
+				DavoCryptProtocol.writeResponse(out, response);
+			} catch (IOException e) {
+				close();
+			} finally {
+				inFlight.release();
+			}
+		}
+
+		void close() {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				// Verbindung ist bereits geschlossen
+			}
+		}
+	}
+}
@@ -0,0 +1,190 @@
+package org.example;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Binärprotokoll zwischen {@link DavoCryptClient} und {@link DavoCryptDaemon} (Big Endian).
+ *
+ * <pre>
+ * Anfrage   Länge(4) | Anfrage-ID(4) | Opcode(1) | Schlüssel-ID (modified UTF-8) | Felder(1) | je Feld: Länge(4) + Bytes
+ * Antwort   Länge(4) | Anfrage-ID(4) | Status(1) | Länge(4) + Nutzdaten bzw. Fehlermeldung (UTF-8)
+ * </pre>
+ * Anfrage-IDs erlauben mehrere offene Anfragen pro Verbindung; Antworten können in beliebiger Reihenfolge eintreffen.
+ */
+final class DavoCryptProtocol {
+	static final byte OP_ENCRYPT = 1;
+	static final byte OP_DECRYPT = 2;
+	static final byte OP_SIGN = 3;
+	static final byte OP_VERIFY = 4;
+	static final byte OP_HASH = 5;
+
+	static final byte STATUS_OK = 0;
+	static final byte STATUS_IO_ERROR = 1;
+	static final byte STATUS_SECURITY_ERROR = 2;
+	static final byte STATUS_INVALID_ARGUMENT = 3;
+
+	static final int MAX_FRAME_LENGTH = 64 * 1024 * 1024;
+
+	private DavoCryptProtocol() {
+	}
+
+	record Request(int requestId, byte opcode, String keyId, byte[][] fields) {
+	}
+
+	record Response(int requestId, byte status, byte[] payload) {
+	}
+
+	static void writeRequest(DataOutputStream out, Request request) throws IOException {
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		DataOutputStream data = new DataOutputStream(body);
+		data.writeInt(request.requestId());
+		data.writeByte(request.opcode());
+		data.writeUTF(request.keyId());
+		data.writeByte(request.fields().length);
+		for (byte[] field : request.fields()) {
+			data.writeInt(field.length);
+			data.write(field);
+		}
+		writeFrame(out, body.toByteArray());
+	}
+
+	/**
+	 * @return Die nächste Anfrage oder {@code null}, wenn die Gegenseite die Verbindung geschlossen hat.
+	 */
+	static Request readRequest(DataInputStream in) throws IOException {
+		int length = readFrameLength(in);
+		return length < 0 ? null : readRequest(in, length);
+	}
+
+	/**
+	 * Liest den Rest einer Anfrage, deren Länge bereits mit {@link #readFrameLength(DataInputStream)} gelesen wurde.
+	 * Erlaubt dem Daemon, Speicher für den Frame zu reservieren, bevor er angelegt wird.
+	 */
+	static Request readRequest(DataInputStream in, int frameLength) throws IOException {
+		byte[] frame = new byte[frameLength];
+		in.readFully(frame);
+
+		DataInputStream data = new DataInputStream(new ByteArrayInputStream(frame));
+		int requestId = data.readInt();
+		byte opcode = data.readByte();
+		String keyId = data.readUTF();
+		byte[][] fields = new byte[data.readUnsignedByte()][];
+		for (int i = 0; i < fields.length; i++) {
+			fields[i] = readField(data, frame.length);
+		}
+		return new Request(requestId, opcode, keyId, fields);
+	}
+
+	static void writeResponse(DataOutputStream out, Response response) throws IOException {
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		DataOutputStream data = new DataOutputStream(body);
+		data.writeInt(response.requestId());
+		data.writeByte(response.status());
+		data.writeInt(response.payload().length);
+		data.write(response.payload());
+		writeFrame(out, body.toByteArray());
+	}
+
+	/**
+	 * @return Die nächste Antwort oder {@code null}, wenn die Gegenseite die Verbindung geschlossen hat.
+	 */
+	static Response readResponse(DataInputStream in) throws IOException {
+		byte[] frame = readFrame(in);
+		if (frame == null) {
+			return null;
+		}
+
+		DataInputStream data = new DataInputStream(new ByteArrayInputStream(frame));
+		int requestId = data.readInt();
+		byte status = data.readByte();
+		return new Response(requestId, status, readField(data, frame.length));
+	}
+
+	/**
+	 * Stream über den Kanal ohne gemeinsame Sperre mit {@link #outputStream(SocketChannel)},
+	 * damit ein blockierender Leser parallele Schreibzugriffe nicht aufhält.
+	 */
+	static InputStream inputStream(SocketChannel channel) {
+		return new InputStream() {
+			@Override
+			public int read() throws IOException {
+				byte[] single = new byte[1];
+				return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				return len == 0 ? 0 : channel.read(ByteBuffer.wrap(b, off, len));
+			}
+		};
+	}
+
+	static OutputStream outputStream(SocketChannel channel) {
+		return new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				write(new byte[]{(byte) b}, 0, 1);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+			}
+		};
+	}
+
+	private static void writeFrame(DataOutputStream out, byte[] body) throws IOException {
+		out.writeInt(body.length);
+		out.write(body);
+		out.flush();
+	}
+
+	private static byte[] readFrame(DataInputStream in) throws IOException {
+		int length = readFrameLength(in);
+		if (length < 0) {
+			return null;
+		}
+		byte[] frame = new byte[length];
+		in.readFully(frame);
+		return frame;
+	}
+
+	/**
+	 * @return Die geprüfte Länge des nächsten Frames oder -1, wenn die Gegenseite die Verbindung geschlossen hat.
+	 */
+	static int readFrameLength(DataInputStream in) throws IOException {
+		int length;
+		try {
+			length = in.readInt();
+		} catch (EOFException e) {
+			return -1;
+		}
+
+		if (length < 0 || length > MAX_FRAME_LENGTH) {
+			throw new IOException("Invalid frame length: " + length);
+		}
+		return length;
+	}
+
+	private static byte[] readField(DataInputStream data, int frameLength) throws IOException {
+		int length = data.readInt();
+		if (length < 0 || length > frameLength) {
+			throw new IOException("Invalid field length: " + length);
+		}
+		byte[] field = new byte[length];
+		data.readFully(field);
+		return field;
+	}
+}
@@ -0,0 +1,19 @@
+package org.example;
+
+import java.io.IOException;
+
+/**
+ * Kryptografische Operationen über benannte Schlüsselkontexte. Implementiert vom
+ * {@link DavoCryptClient} (über den Daemon) und vom {@link LocalDavoCryptService} (im selben Prozess).
+ */
+public interface DavoCryptService {
+	String encrypt(String keyId, String plaintext) throws IOException;
+
+	String decrypt(String keyId, String ciphertext) throws IOException;
+
+	byte[] sign(String keyId, byte[] data) throws IOException;
+
+	boolean verify(String keyId, byte[] data, byte[] signature) throws IOException;
+
+	byte[] hash(byte[] data) throws IOException;
+}
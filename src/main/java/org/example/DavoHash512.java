@@ -85,18 +85,60 @@ public class DavoHash512 {
 		long[] state = initializeState((int) file.length());
 
 		try (FileInputStream fis = new FileInputStream(file)) {
-			byte[] buffer = new byte[BLOCK_SIZE];
-			int bytesRead;
-
-			while ((bytesRead = fis.read(buffer)) != -1) {
-				// Wenn es der letzte Block ist, müssen wir padInput aufrufen
-				if (bytesRead < BLOCK_SIZE) {
-					processBlock(toLongArray(padInput(buffer, bytesRead)), state);
-				} else {
-					// Volle Blöcke ohne Padding verarbeiten
-					processBlock(toLongArray(buffer), state);
+			processBinaryStream(fis, state);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+
+		doubleFinalization(state);
+		return buildHashBytes(state);
+	}
+
+	/**
+	 * Wie {@link #hashFile(File)}, liefert aber den im Cache gespeicherten Digest, solange
+	 * kanonischer Pfad, Größe, mtime und Inode der Datei unverändert sind.
+	 */
+	public static byte[] hashFileCached(File file, DavoHashCache cache) {
+		return hashFileCached(file, cache, false);
+	}
+
+	/**
+	 * @param forceVerify Wenn {@code true}, wird die Datei trotz passender Metadaten neu gehasht
+	 *                    und der Cache-Eintrag überschrieben.
+	 */
+	public static byte[] hashFileCached(File file, DavoHashCache cache, boolean forceVerify) {
+		try {
+			DavoHashCache.FileKey before = DavoHashCache.FileKey.of(file);
+			if (!forceVerify) {
+				byte[] cached = cache.lookup(before);
+				if (cached != null) {
+					return cached;
 				}
 			}
+
+			byte[] digest = hashFile(file);
+
+			// Nur speichern, wenn sich die Datei während des Hashens nicht verändert hat und ihre mtime
+			// weit genug zurückliegt, dass eine spätere Änderung sie sicher verschieben würde
+			if (before.sameAs(DavoHashCache.FileKey.of(file)) && !before.isRacy(System.currentTimeMillis())) {
+				cache.store(before, digest);
+			}
+			return digest;
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Hasht rohe Bytes mit derselben Blockverarbeitung wie {@link #hashFile(File)},
+	 * sodass hash(Dateiinhalt) und hashFile(Datei) denselben Digest liefern.
+	 */
+	public static byte[] hash(byte[] data) {
+		if (data == null) data = new byte[0];
+		long[] state = initializeState(data.length);
+
+		try (ByteArrayInputStream bis = new ByteArrayInputStream(data)) {
+			processBinaryStream(bis, state);
 		} catch (IOException e) {
 			throw new RuntimeException(e);
 		}
@@ -105,6 +147,21 @@ public class DavoHash512 {
 		return buildHashBytes(state);
 	}
 
+	private static void processBinaryStream(InputStream in, long[] state) throws IOException {
+		byte[] buffer = new byte[BLOCK_SIZE];
+		int bytesRead;
+
+		while ((bytesRead = in.read(buffer)) != -1) {
+			// Wenn es der letzte Block ist, müssen wir padInput aufrufen
+			if (bytesRead < BLOCK_SIZE) {
+				processBlock(toLongArray(padInput(buffer, bytesRead)), state);
+			} else {
+				// Volle Blöcke ohne Padding verarbeiten
+				processBlock(toLongArray(buffer), state);
+			}
+		}
+	}
+
 	public static String bytesToHex(byte[] hashBytes) {
 		StringBuilder hexString = new StringBuilder(hashBytes.length * 2);
 		for (byte b : hashBytes) {
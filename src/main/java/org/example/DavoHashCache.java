@@ -0,0 +1,297 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistenter Digest-Cache für {@link DavoHash512#hashFileCached(File, DavoHashCache)}.
+ *
+ * Die Einträge liegen in einer memory-mapped Indexdatei fester Größe. Schlüssel ist
+ * (kanonischer Pfad, Größe, mtime, Inode); stimmen die Metadaten überein, wird der gespeicherte
+ * Digest ohne erneutes Hashen zurückgegeben. Ist der Suchbereich eines Pfads voll, wird der
+ * am längsten nicht genutzte Eintrag verdrängt, sodass die Datei nie über ihre Kapazität wächst.
+ *
+ * Die Indexdatei wird exklusiv gesperrt; ein zweiter Prozess kann denselben Cache erst nach {@link #close()} öffnen.
+ * Jeder Eintrag trägt eine Prüfsumme über Schlüssel und Digest, damit ein abgebrochener Schreibvorgang
+ * nie als gültiger Treffer gelesen wird.
+ *
+ * Dateien, deren mtime weniger als zwei Sekunden zurückliegt, werden nicht gespeichert:
+ * Auf Dateisystemen mit grober Zeitauflösung (FAT, ext3, NFS) könnte eine gleich große Änderung im selben
+ * Zeitschritt sonst dieselbe mtime behalten und dauerhaft den alten Digest liefern.
+ *
+ * Aufbau (Big Endian):
+ * <pre>
+ * Header  MAGIC(8) | Version(4) | Slots(4) | Uhr(8)
+ * Slot    Pfad-Hash(16) | Größe(8) | mtime(8) | Inode(8) | Zuletzt genutzt(8) | Prüfsumme(8) | Digest(64)
+ * </pre>
+ */
+public class DavoHashCache implements Closeable {
+	private static final byte[] MAGIC = "DAVOHCAC".getBytes(StandardCharsets.US_ASCII);
+	private static final int VERSION = 1;
+	private static final int HEADER_LENGTH = 24;
+	private static final int KEY_HASH_LENGTH = 16;
+	private static final int DIGEST_LENGTH = 64;
+	private static final int SLOT_LENGTH = KEY_HASH_LENGTH + 8 + 8 + 8 + 8 + 8 + DIGEST_LENGTH;
+	private static final int PROBE_LIMIT = 8;
+	private static final int CLOCK_OFFSET = 16;
+	// Gröbste übliche mtime-Auflösung (FAT: 2 s)
+	static final long RACY_WINDOW_MILLIS = 2000;
+
+	// Offsets innerhalb eines Slots
+	private static final int SIZE_OFFSET = KEY_HASH_LENGTH;
+	private static final int MTIME_OFFSET = SIZE_OFFSET + 8;
+	private static final int INODE_OFFSET = MTIME_OFFSET + 8;
+	private static final int LAST_USED_OFFSET = INODE_OFFSET + 8;
+	private static final int CHECKSUM_OFFSET = LAST_USED_OFFSET + 8;
+	private static final int DIGEST_OFFSET = CHECKSUM_OFFSET + 8;
+
+	private final FileChannel channel;
+	private final FileLock lock;
+	private final MappedByteBuffer index;
+	private final int slotCount;
+	private long clock;
+
+	/**
+	 * Öffnet oder erstellt einen Cache mit Platz für {@code maxEntries} Einträge.
+	 * Eine vorhandene Datei mit anderer Kapazität oder Version wird verworfen.
+	 *
+	 * @param indexPath  Pfad der Indexdatei.
+	 * @param maxEntries Maximale Anzahl gespeicherter Digests.
+	 * @throws IOException Wenn die Indexdatei nicht geöffnet werden kann oder bereits von einem anderen Prozess genutzt wird.
+	 */
+	public DavoHashCache(Path indexPath, int maxEntries) throws IOException {
+		if (maxEntries < 1) {
+			throw new IllegalArgumentException("Cache must hold at least one entry.");
+		}
+
+		this.slotCount = maxEntries;
+		long fileLength = HEADER_LENGTH + (long) maxEntries * SLOT_LENGTH;
+		if (fileLength > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Cache index cannot exceed 2 GB.");
+		}
+
+		this.channel = FileChannel.open(indexPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		this.lock = acquireLock(channel, indexPath);
+		boolean reuse = channel.size() == fileLength;
+		if (!reuse) {
+			channel.truncate(0);
+		}
+		this.index = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileLength);
+
+		if (reuse && hasValidHeader()) {
+			this.clock = index.getLong(CLOCK_OFFSET);
+		} else {
+			initialize();
+		}
+	}
+
+	private static FileLock acquireLock(FileChannel channel, Path indexPath) throws IOException {
+		FileLock acquired;
+		try {
+			acquired = channel.tryLock();
+		} catch (OverlappingFileLockException e) {
+			acquired = null;
+		}
+
+		if (acquired == null) {
+			channel.close();
+			throw new IOException("Hash cache is already in use: " + indexPath);
+		}
+		return acquired;
+	}
+
+	/**
+	 * Liefert den gespeicherten Digest, wenn die aktuellen Metadaten der Datei exakt dem Eintrag entsprechen.
+	 */
+	synchronized byte[] lookup(FileKey key) {
+		int slot = findSlot(key.pathHash);
+		if (slot < 0) {
+			return null;
+		}
+
+		int base = slotOffset(slot);
+		if (index.getLong(base + SIZE_OFFSET) != key.size
+				|| index.getLong(base + MTIME_OFFSET) != key.mtime
+				|| index.getLong(base + INODE_OFFSET) != key.inode) {
+			return null;
+		}
+
+		byte[] digest = new byte[DIGEST_LENGTH];
+		index.get(base + DIGEST_OFFSET, digest);
+		if (index.getLong(base + CHECKSUM_OFFSET) != checksum(key, digest)) {
+			return null;
+		}
+
+		index.putLong(base + LAST_USED_OFFSET, tick());
+		return digest;
+	}
+
+	/**
+	 * Speichert den Digest für die Datei; verdrängt bei Bedarf den ältesten Eintrag im Suchbereich.
+	 */
+	synchronized void store(FileKey key, byte[] digest) {
+		int slot = findSlot(key.pathHash);
+		if (slot < 0) {
+			slot = victimSlot(key.pathHash);
+		}
+
+		// Slot zuerst ungültig machen und erst nach Digest und Prüfsumme wieder veröffentlichen,
+		// damit ein Abbruch mittendrin nie neue Metadaten neben einem alten Digest hinterlässt
+		int base = slotOffset(slot);
+		index.putLong(base + LAST_USED_OFFSET, 0);
+		index.put(base, key.pathHash);
+		index.putLong(base + SIZE_OFFSET, key.size);
+		index.putLong(base + MTIME_OFFSET, key.mtime);
+		index.putLong(base + INODE_OFFSET, key.inode);
+		index.put(base + DIGEST_OFFSET, digest);
+		index.putLong(base + CHECKSUM_OFFSET, checksum(key, digest));
+		index.putLong(base + LAST_USED_OFFSET, tick());
+	}
+
+	private static long checksum(FileKey key, byte[] digest) {
+		ByteBuffer entry = ByteBuffer.allocate(KEY_HASH_LENGTH + 24 + DIGEST_LENGTH);
+		entry.put(key.pathHash).putLong(key.size).putLong(key.mtime).putLong(key.inode).put(digest);
+		return ByteBuffer.wrap(DavoHash512.hash(entry.array())).getLong();
+	}
+
+	private int findSlot(byte[] pathHash) {
+		int start = homeSlot(pathHash);
+		byte[] stored = new byte[KEY_HASH_LENGTH];
+
+		for (int i = 0; i < Math.min(PROBE_LIMIT, slotCount); i++) {
+			int slot = (start + i) % slotCount;
+			int base = slotOffset(slot);
+			if (index.getLong(base + LAST_USED_OFFSET) == 0) {
+				continue;
+			}
+			index.get(base, stored);
+			if (Arrays.equals(stored, pathHash)) {
+				return slot;
+			}
+		}
+		return -1;
+	}
+
+	private int victimSlot(byte[] pathHash) {
+		int start = homeSlot(pathHash);
+		int victim = start;
+		long oldest = Long.MAX_VALUE;
+
+		for (int i = 0; i < Math.min(PROBE_LIMIT, slotCount); i++) {
+			int slot = (start + i) % slotCount;
+			long lastUsed = index.getLong(slotOffset(slot) + LAST_USED_OFFSET);
+			if (lastUsed < oldest) {
+				oldest = lastUsed;
+				victim = slot;
+			}
+		}
+		return victim;
+	}
+
+	private int homeSlot(byte[] pathHash) {
+		return (int) Long.remainderUnsigned(ByteBuffer.wrap(pathHash).getLong(), slotCount);
+	}
+
+	private int slotOffset(int slot) {
+		return HEADER_LENGTH + slot * SLOT_LENGTH;
+	}
+
+	private long tick() {
+		clock++;
+		index.putLong(CLOCK_OFFSET, clock);
+		return clock;
+	}
+
+	private boolean hasValidHeader() {
+		byte[] magic = new byte[MAGIC.length];
+		index.get(0, magic);
+		return Arrays.equals(magic, MAGIC)
+				&& index.getInt(MAGIC.length) == VERSION
+				&& index.getInt(MAGIC.length + 4) == slotCount;
+	}
+
+	private void initialize() {
+		index.put(0, new byte[index.capacity()]);
+		index.put(0, MAGIC);
+		index.putInt(MAGIC.length, VERSION);
+		index.putInt(MAGIC.length + 4, slotCount);
+		this.clock = 0;
+		index.putLong(CLOCK_OFFSET, clock);
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (!channel.isOpen()) {
+			return;
+		}
+		index.force();
+		lock.release();
+		channel.close();
+	}
+
+	/**
+	 * Metadaten-Schlüssel einer Datei: Hash des kanonischen Pfads, Größe, mtime und Inode.
+	 */
+	static final class FileKey {
+		final byte[] pathHash;
+		final long size;
+		final long mtime;
+		final long inode;
+
+		private FileKey(byte[] pathHash, long size, long mtime, long inode) {
+			this.pathHash = pathHash;
+			this.size = size;
+			this.mtime = mtime;
+			this.inode = inode;
+		}
+
+		static FileKey of(File file) throws IOException {
+			String canonicalPath = file.getCanonicalPath();
+			Path path = Path.of(canonicalPath);
+			BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+
+			byte[] pathHash = Arrays.copyOf(DavoHash512.hash(canonicalPath.getBytes(StandardCharsets.UTF_8)), KEY_HASH_LENGTH);
+			return new FileKey(pathHash, attributes.size(),
+					attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS), inodeOf(path, attributes));
+		}
+
+		private static long inodeOf(Path path, BasicFileAttributes attributes) {
+			try {
+				Object inode = Files.getAttribute(path, "unix:ino");
+				if (inode instanceof Number number) {
+					return number.longValue();
+				}
+			} catch (UnsupportedOperationException | IllegalArgumentException | IOException e) {
+				// Kein Unix-Dateisystem: auf den plattformabhängigen fileKey ausweichen
+			}
+			Object fileKey = attributes.fileKey();
+			return fileKey != null ? fileKey.hashCode() : 0;
+		}
+
+		/**
+		 * Liegt die mtime innerhalb der Zeitauflösung des Dateisystems vor {@code nowMillis} (oder in der Zukunft),
+		 * kann eine gleich große Änderung sie unverändert lassen; solche Einträge dürfen nicht gespeichert werden.
+		 */
+		boolean isRacy(long nowMillis) {
+			return mtime >= TimeUnit.MILLISECONDS.toNanos(nowMillis - RACY_WINDOW_MILLIS);
+		}
+
+		boolean sameAs(FileKey other) {
+			return Arrays.equals(pathHash, other.pathHash) && size == other.size
+					&& mtime == other.mtime && inode == other.inode;
+		}
+	}
+}
@@ -0,0 +1,228 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lesender {@link SeekableByteChannel} über eine {@link DavoSeekableFile}-Datei.
+ * Beim Öffnen werden Header und Index gegen die Signatur geprüft; danach werden pro Lesezugriff
+ * nur die berührten Segmente authentifiziert und nur die berührten Blöcke entschlüsselt.
+ */
+public class DavoSeekableChannel implements SeekableByteChannel {
+	private final DavoCrypt4096 crypto;
+	private final FileChannel file;
+	private final int plainBlockLength;
+	private final int cipherBlockLength;
+	private final int blocksPerSegment;
+	private final long plaintextLength;
+	private final long[] offsets;
+	private final byte[][] leaves;
+
+	private long position;
+	private boolean open = true;
+
+	// Zuletzt geprüftes Segment und zuletzt entschlüsselter Block
+	private int cachedSegment = -1;
+	private ByteBuffer cachedSegmentData;
+	private long cachedBlock = -1;
+	private byte[] cachedBlockData;
+
+	private DavoSeekableChannel(DavoCrypt4096 crypto, FileChannel file) throws IOException {
+		this.crypto = crypto;
+		this.file = file;
+
+		ByteBuffer header = readFully(0, DavoSeekableFile.HEADER_LENGTH);
+		byte[] magic = new byte[DavoSeekableFile.MAGIC.length];
+		header.get(magic);
+		if (!Arrays.equals(magic, DavoSeekableFile.MAGIC) || header.getInt() != DavoSeekableFile.VERSION) {
+			throw new SecurityException("Invalid seekable file format.");
+		}
+
+		this.plainBlockLength = header.getInt();
+		this.cipherBlockLength = header.getInt();
+		this.blocksPerSegment = header.getInt();
+		this.plaintextLength = header.getLong();
+		int segmentCount = header.getInt();
+
+		if (cipherBlockLength != crypto.cipherBlockLength() || plainBlockLength < 1 || blocksPerSegment < 1
+				|| plaintextLength < 0 || segmentCount < 0) {
+			throw new SecurityException("Seekable file header does not match the loaded keys.");
+		}
+
+		// Header ist noch nicht signaturgeprüft: Segmentanzahl und Indexgröße vor jeder Allokation plausibilisieren
+		long blockCount = (plaintextLength + plainBlockLength - 1) / plainBlockLength;
+		long expectedSegments = (blockCount + blocksPerSegment - 1) / blocksPerSegment;
+		long indexLength = (long) segmentCount * DavoSeekableFile.INDEX_ENTRY_LENGTH;
+		if (segmentCount != expectedSegments || indexLength > Integer.MAX_VALUE
+				|| DavoSeekableFile.dataStart(segmentCount, cipherBlockLength) > file.size()) {
+			throw new SecurityException("Seekable file header is inconsistent. Data integrity is compromised.");
+		}
+
+		ByteBuffer index = readFully(DavoSeekableFile.HEADER_LENGTH, (int) indexLength);
+		this.offsets = new long[segmentCount];
+		this.leaves = new byte[segmentCount][DavoSeekableFile.HASH_LENGTH];
+		for (int segment = 0; segment < segmentCount; segment++) {
+			offsets[segment] = index.getLong();
+			index.get(leaves[segment]);
+		}
+
+		byte[] signature = new byte[cipherBlockLength];
+		readFully(DavoSeekableFile.HEADER_LENGTH + indexLength, cipherBlockLength)
+				.get(signature);
+
+		byte[] digest = DavoSeekableFile.signedDigest(header.rewind(), offsets, DavoSeekableFile.merkleRoot(List.of(leaves)));
+		if (!crypto.verifyDigest(digest, signature)) {
+			throw new SecurityException("Signature validation failed. Data integrity is compromised.");
+		}
+	}
+
+	/**
+	 * Öffnet eine seekbare Datei zum Lesen.
+	 *
+	 * @param crypto Instanz mit den Schlüsseln, mit denen die Datei geschrieben wurde.
+	 * @param path   Pfad der verschlüsselten Datei.
+	 * @throws IOException Wenn ein Fehler beim Lesen auftritt.
+	 */
+	public static DavoSeekableChannel open(DavoCrypt4096 crypto, Path path) throws IOException {
+		FileChannel file = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			return new DavoSeekableChannel(crypto, file);
+		} catch (IOException | RuntimeException e) {
+			file.close();
+			throw e;
+		}
+	}
+
+	@Override
+	public int read(ByteBuffer dst) throws IOException {
+		ensureOpen();
+		if (position >= plaintextLength) {
+			return -1;
+		}
+
+		int total = 0;
+		while (dst.hasRemaining() && position < plaintextLength) {
+			long block = position / plainBlockLength;
+			byte[] plain = loadBlock(block);
+
+			int offsetInBlock = (int) (position - block * plainBlockLength);
+			int count = Math.min(dst.remaining(), plain.length - offsetInBlock);
+			dst.put(plain, offsetInBlock, count);
+
+			position += count;
+			total += count;
+		}
+		return total;
+	}
+
+	private byte[] loadBlock(long block) throws IOException {
+		if (block == cachedBlock) {
+			return cachedBlockData;
+		}
+
+		int segment = (int) (block / blocksPerSegment);
+		ByteBuffer segmentData = loadSegment(segment);
+
+		byte[] cipherBlock = new byte[cipherBlockLength];
+		segmentData.get((int) (block % blocksPerSegment) * cipherBlockLength, cipherBlock);
+		byte[] plain = crypto.decryptRawBlock(cipherBlock);
+
+		long expectedLength = Math.min(plainBlockLength, plaintextLength - block * plainBlockLength);
+		if (plain.length != expectedLength) {
+			throw new SecurityException("Block length mismatch. Data integrity is compromised.");
+		}
+
+		cachedBlock = block;
+		cachedBlockData = plain;
+		return plain;
+	}
+
+	private ByteBuffer loadSegment(int segment) throws IOException {
+		if (segment == cachedSegment) {
+			return cachedSegmentData;
+		}
+
+		long firstBlock = (long) segment * blocksPerSegment;
+		long blockCount = (plaintextLength + plainBlockLength - 1) / plainBlockLength;
+		int blocksInSegment = (int) Math.min(blocksPerSegment, blockCount - firstBlock);
+
+		ByteBuffer data = readFully(offsets[segment], blocksInSegment * cipherBlockLength);
+		byte[] leaf = DavoSeekableFile.leafHash(segment, data.duplicate());
+		if (!MessageDigest.isEqual(leaf, leaves[segment])) {
+			throw new SecurityException("Segment " + segment + " failed authentication. Data integrity is compromised.");
+		}
+
+		cachedSegment = segment;
+		cachedSegmentData = data;
+		return data;
+	}
+
+	private ByteBuffer readFully(long offset, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		while (buffer.hasRemaining()) {
+			int read = file.read(buffer, offset + buffer.position());
+			if (read < 0) {
+				throw new SecurityException("Unexpected end of seekable file. Data integrity is compromised.");
+			}
+		}
+		return buffer.flip();
+	}
+
+	@Override
+	public int write(ByteBuffer src) {
+		throw new NonWritableChannelException();
+	}
+
+	@Override
+	public long position() throws IOException {
+		ensureOpen();
+		return position;
+	}
+
+	@Override
+	public SeekableByteChannel position(long newPosition) throws IOException {
+		ensureOpen();
+		if (newPosition < 0) {
+			throw new IllegalArgumentException("Position cannot be negative.");
+		}
+		this.position = newPosition;
+		return this;
+	}
+
+	@Override
+	public long size() throws IOException {
+		ensureOpen();
+		return plaintextLength;
+	}
+
+	@Override
+	public SeekableByteChannel truncate(long size) {
+		throw new NonWritableChannelException();
+	}
+
+	@Override
+	public boolean isOpen() {
+		return open;
+	}
+
+	@Override
+	public void close() throws IOException {
+		open = false;
+		file.close();
+	}
+
+	private void ensureOpen() throws ClosedChannelException {
+		if (!open) {
+			throw new ClosedChannelException();
+		}
+	}
+}
@@ -0,0 +1,165 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seekbares Dateiformat für DavoCrypt4096.
+ *
+ * Aufbau (Big Endian):
+ * <pre>
+ * Header    MAGIC(8) | Version(4) | Klartextblock(4) | Chiffreblock(4) | Blöcke/Segment(4) | Klartextlänge(8) | Segmente(4)
+ * Index     pro Segment: Offset(8) | Merkle-Blatt DavoHash512(64)
+ * Signatur  Merkle-Wurzel + Header + Offsets, signiert mit dem privaten Schlüssel (Chiffreblock Bytes)
+ * Daten     Verschlüsselte Blöcke fester Größe
+ * </pre>
+ * Jedes Segment wird über sein Merkle-Blatt authentifiziert, sodass beim Lesen nur die
+ * berührten Segmente geprüft und nur die berührten Blöcke entschlüsselt werden müssen.
+ */
+public final class DavoSeekableFile {
+	static final byte[] MAGIC = "DAVOSEEK".getBytes(StandardCharsets.US_ASCII);
+	static final int VERSION = 1;
+	static final int HEADER_LENGTH = 36;
+	static final int HASH_LENGTH = 64;
+	static final int INDEX_ENTRY_LENGTH = 8 + HASH_LENGTH;
+	static final int DEFAULT_BLOCKS_PER_SEGMENT = 8;
+
+	private static final byte LEAF_PREFIX = 0x00;
+	private static final byte NODE_PREFIX = 0x01;
+
+	private DavoSeekableFile() {
+	}
+
+	/**
+	 * Verschlüsselt {@code source} blockweise in das seekbare Format nach {@code target}.
+	 *
+	 * @param crypto          Instanz mit geladenen Schlüsseln.
+	 * @param source          Klartextdatei.
+	 * @param target          Zieldatei (wird überschrieben).
+	 * @param blocksPerSegment Anzahl verschlüsselter Blöcke pro authentifiziertem Segment.
+	 * @throws IOException Wenn ein Fehler beim Lesen oder Schreiben auftritt.
+	 */
+	public static void write(DavoCrypt4096 crypto, Path source, Path target, int blocksPerSegment) throws IOException {
+		if (blocksPerSegment < 1) {
+			throw new IllegalArgumentException("Blocks per segment must be at least 1.");
+		}
+
+		int plainBlockLength = crypto.maxPlaintextBlockLength();
+		int cipherBlockLength = crypto.cipherBlockLength();
+		long plaintextLength = Files.size(source);
+		long blockCount = (plaintextLength + plainBlockLength - 1) / plainBlockLength;
+		int segmentCount = Math.toIntExact((blockCount + blocksPerSegment - 1) / blocksPerSegment);
+
+		ByteBuffer header = buildHeader(plainBlockLength, cipherBlockLength, blocksPerSegment, plaintextLength, segmentCount);
+		long dataStart = dataStart(segmentCount, cipherBlockLength);
+		long segmentStride = (long) blocksPerSegment * cipherBlockLength;
+
+		long[] offsets = new long[segmentCount];
+		List<byte[]> leaves = new ArrayList<>(segmentCount);
+
+		try (InputStream in = Files.newInputStream(source);
+			 FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					 StandardOpenOption.TRUNCATE_EXISTING)) {
+			long remaining = plaintextLength;
+
+			for (int segment = 0; segment < segmentCount; segment++) {
+				offsets[segment] = dataStart + segment * segmentStride;
+				ByteBuffer segmentBuffer = ByteBuffer.allocate((int) segmentStride);
+
+				for (int i = 0; i < blocksPerSegment && remaining > 0; i++) {
+					byte[] block = in.readNBytes((int) Math.min(plainBlockLength, remaining));
+					if (block.length == 0) {
+						throw new IOException("Source file changed while encrypting.");
+					}
+					segmentBuffer.put(crypto.encryptRawBlock(block));
+					remaining -= block.length;
+				}
+
+				segmentBuffer.flip();
+				leaves.add(leafHash(segment, segmentBuffer.duplicate()));
+				writeFully(out, segmentBuffer, offsets[segment]);
+			}
+
+			ByteBuffer index = ByteBuffer.allocate(segmentCount * INDEX_ENTRY_LENGTH);
+			for (int segment = 0; segment < segmentCount; segment++) {
+				index.putLong(offsets[segment]).put(leaves.get(segment));
+			}
+			index.flip();
+
+			byte[] signature = crypto.signDigest(signedDigest(header.duplicate(), offsets, merkleRoot(leaves)));
+
+			writeFully(out, header, 0);
+			writeFully(out, index, HEADER_LENGTH);
+			writeFully(out, ByteBuffer.wrap(signature), HEADER_LENGTH + (long) segmentCount * INDEX_ENTRY_LENGTH);
+		}
+	}
+
+	static ByteBuffer buildHeader(int plainBlockLength, int cipherBlockLength, int blocksPerSegment,
+								  long plaintextLength, int segmentCount) {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+		header.put(MAGIC)
+				.putInt(VERSION)
+				.putInt(plainBlockLength)
+				.putInt(cipherBlockLength)
+				.putInt(blocksPerSegment)
+				.putLong(plaintextLength)
+				.putInt(segmentCount);
+		return header.flip();
+	}
+
+	static long dataStart(int segmentCount, int cipherBlockLength) {
+		return HEADER_LENGTH + (long) segmentCount * INDEX_ENTRY_LENGTH + cipherBlockLength;
+	}
+
+	static byte[] leafHash(long segment, ByteBuffer cipherSegment) {
+		ByteBuffer leaf = ByteBuffer.allocate(1 + 8 + cipherSegment.remaining());
+		leaf.put(LEAF_PREFIX).putLong(segment).put(cipherSegment);
+		return DavoHash512.hash(leaf.array());
+	}
+
+	static byte[] merkleRoot(List<byte[]> leaves) {
+		if (leaves.isEmpty()) {
+			return DavoHash512.hash(new byte[0]);
+		}
+
+		List<byte[]> level = leaves;
+		while (level.size() > 1) {
+			List<byte[]> next = new ArrayList<>((level.size() + 1) / 2);
+			for (int i = 0; i < level.size(); i += 2) {
+				if (i + 1 == level.size()) {
+					next.add(level.get(i)); // Ungerader Knoten wird hochgereicht
+				} else {
+					ByteBuffer node = ByteBuffer.allocate(1 + 2 * HASH_LENGTH);
+					node.put(NODE_PREFIX).put(level.get(i)).put(level.get(i + 1));
+					next.add(DavoHash512.hash(node.array()));
+				}
+			}
+			level = next;
+		}
+		return level.get(0);
+	}
+
+	static byte[] signedDigest(ByteBuffer header, long[] offsets, byte[] root) {
+		ByteBuffer data = ByteBuffer.allocate(header.remaining() + offsets.length * 8 + root.length);
+		data.put(header);
+		for (long offset : offsets) {
+			data.putLong(offset);
+		}
+		data.put(root);
+		return DavoHash512.hash(data.array());
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+	}
+}
@@ -4,6 +4,7 @@ import java.math.BigInteger;
 import java.util.concurrent.CompletableFuture;
 
 public class KeyGenerator {
+    private final KeySize keySize;
     private BigInteger publicKey;
     private BigInteger privateKey;
     private BigInteger modulus;
@@ -13,7 +14,17 @@ public class KeyGenerator {
     private static final BigInteger CONSTANT_E = new BigInteger("2718281828459045235");
     private static final BigInteger CONSTANT_PHI = new BigInteger("1618033988749894848");
 
+    // Kleine Primzahlen für die Vorsiebung der Kandidaten
+    private static final int[] SMALL_PRIMES = generateSmallPrimes(1 << 16);
+    // Suchfenster ab einem Startwert, bevor ein neuer Startwert gezogen wird
+    private static final int SEARCH_WINDOW = 1 << 20;
+
     public KeyGenerator() {
+        this(KeySize.BITS_4096);
+    }
+
+    public KeyGenerator(KeySize keySize) {
+        this.keySize = keySize;
         generateKeys();
     }
 
@@ -40,18 +51,75 @@ public class KeyGenerator {
     }
 
     private BigInteger generateEnhancedPrime() {
-        int bitLength = 2048;
-        BigInteger candidate = generateRandomBigInteger(bitLength);
+        int bitLength = keySize.getPrimeBits();
         BigInteger cachedMod = BigInteger.TWO.pow(bitLength / 2);
 
-        while (!isStrongPrime(candidate)) {
-            candidate = candidate.add(BigInteger.TWO);
-            candidate = advancedBitMix(candidate, cachedMod);
-            candidate = dynamicFeedback(candidate); // Sicherheitsmechanismus aus Algorithmus 2
-            candidate = iterativeTransform(candidate, bitLength); // Stärkere Bitmuster-Streuung
+        while (true) {
+            // Streuung einmalig auf den Startwert anwenden; ihre Ausgabe bleibt in den unteren Bits erhalten
+            BigInteger start = generateRandomBigInteger(bitLength);
+            BigInteger mixed = advancedBitMix(start, cachedMod);
+            mixed = dynamicFeedback(mixed); // Sicherheitsmechanismus aus Algorithmus 2
+            mixed = iterativeTransform(mixed, bitLength); // Stärkere Bitmuster-Streuung
+            BigInteger base = normalizeCandidate(start.xor(mixed), bitLength);
+
+            // Ab dem Startwert aufwärts suchen; die Reste modulo der kleinen Primzahlen werden nur einmal
+            // berechnet und pro Schritt fortgeschrieben, sodass nur ungesiebte Kandidaten Miller-Rabin erreichen
+            int[] residues = new int[SMALL_PRIMES.length];
+            for (int i = 0; i < SMALL_PRIMES.length; i++) {
+                residues[i] = base.mod(BigInteger.valueOf(SMALL_PRIMES[i])).intValue();
+            }
+
+            for (int offset = 0; offset < SEARCH_WINDOW; offset += 2) {
+                if (passesSieve(residues, offset)) {
+                    BigInteger candidate = base.add(BigInteger.valueOf(offset));
+                    if (candidate.bitLength() == bitLength && isPrime(candidate)) {
+                        return candidate;
+                    }
+                }
+            }
         }
+    }
 
-        return candidate;
+    private static boolean passesSieve(int[] residues, int offset) {
+        for (int i = 0; i < SMALL_PRIMES.length; i++) {
+            if ((residues[i] + offset) % SMALL_PRIMES[i] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Bringt einen Kandidaten auf exakt {@code bitLength} Bits. Die beiden höchsten Bits werden gesetzt,
+     * damit das Produkt zweier Primzahlen genau die Modulusgröße erreicht; das LSB macht ihn ungerade.
+     */
+    private BigInteger normalizeCandidate(BigInteger value, int bitLength) {
+        return value.mod(BigInteger.TWO.pow(bitLength))
+                .setBit(bitLength - 1)
+                .setBit(bitLength - 2)
+                .setBit(0);
+    }
+
+    private static int[] generateSmallPrimes(int limit) {
+        boolean[] composite = new boolean[limit + 1];
+        int count = 0;
+        for (int i = 2; i <= limit; i++) {
+            if (!composite[i]) {
+                count++;
+                for (long j = (long) i * i; j <= limit; j += i) {
+                    composite[(int) j] = true;
+                }
+            }
+        }
+
+        int[] primes = new int[count];
+        int index = 0;
+        for (int i = 2; i <= limit; i++) {
+            if (!composite[i]) {
+                primes[index++] = i;
+            }
+        }
+        return primes;
     }
 
     private BigInteger generateRandomBigInteger(int bitLength) {
@@ -73,12 +141,6 @@ public class KeyGenerator {
         return entropy;
     }
 
-    private boolean isStrongPrime(BigInteger number) {
-        if (!isPrime(number)) return false;
-        BigInteger half = number.subtract(BigInteger.ONE).divide(BigInteger.TWO);
-        return isPrime(half);
-    }
-
     private boolean isPrime(BigInteger number) {
         if (number.compareTo(BigInteger.TWO) < 0) return false;
 
@@ -168,6 +230,10 @@ public class KeyGenerator {
         return e;
     }
 
+    public KeySize getKeySize() {
+        return keySize;
+    }
+
     public BigInteger getPublicKey() {
         return publicKey;
     }
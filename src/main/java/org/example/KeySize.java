@@ -0,0 +1,40 @@
+package org.example;
+
+import java.math.BigInteger;
+
+/**
+ * Unterstützte Modulusgrößen. Jede Größe besteht aus zwei Primzahlen mit halber Bitlänge.
+ */
+public enum KeySize {
+    BITS_2048(2048),
+    BITS_3072(3072),
+    BITS_4096(4096),
+    BITS_8192(8192);
+
+    private final int modulusBits;
+
+    KeySize(int modulusBits) {
+        this.modulusBits = modulusBits;
+    }
+
+    public int getModulusBits() {
+        return modulusBits;
+    }
+
+    public int getPrimeBits() {
+        return modulusBits / 2;
+    }
+
+    public static KeySize ofBits(int bits) {
+        for (KeySize size : values()) {
+            if (size.modulusBits == bits) {
+                return size;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported key size: " + bits + " bits.");
+    }
+
+    public static KeySize ofModulus(BigInteger modulus) {
+        return ofBits(modulus.bitLength());
+    }
+}
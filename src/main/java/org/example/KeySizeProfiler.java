@@ -0,0 +1,84 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Misst für jede Schlüsselgröße auf der aktuellen Maschine Schlüsselgenerierung,
+ * Ver-/Entschlüsselungen pro Sekunde und die Kosten von Signatur und Verifikation.
+ *
+ * "Raw" misst nur die Blockoperation; {@code encrypt()} und {@code decrypt()} messen die öffentlichen
+ * Methoden für einen Block Text einschließlich Salt und Signatur, wie sie Anwender tatsächlich aufrufen.
+ *
+ * Aufruf: {@code java org.example.Main profile [2048 3072 4096 8192]}
+ */
+public class KeySizeProfiler {
+    private static final long MEASURE_NANOS = 1_000_000_000L;
+    private static final int WARMUP_OPERATIONS = 5;
+
+    public static void main(String[] args) {
+        List<KeySize> sizes = new ArrayList<>();
+        for (String arg : args) {
+            sizes.add(KeySize.ofBits(Integer.parseInt(arg)));
+        }
+        if (sizes.isEmpty()) {
+            sizes.addAll(List.of(KeySize.values()));
+        }
+
+        System.out.printf("%-6s %12s %12s %12s %12s %12s %12s %12s %12s%n",
+                "Bits", "Keygen ms", "Block B", "Raw enc/s", "Raw dec/s", "encrypt()/s", "decrypt()/s", "Sign ms", "Verify ms");
+        for (KeySize size : sizes) {
+            profile(size);
+        }
+    }
+
+    private static void profile(KeySize size) {
+        long start = System.nanoTime();
+        DavoCrypt4096 crypto = new DavoCrypt4096(size);
+        double keygenMillis = (System.nanoTime() - start) / 1e6;
+
+        byte[] block = new byte[crypto.maxPlaintextBlockLength()];
+        new Random(size.getModulusBits()).nextBytes(block);
+        byte[] cipherBlock = crypto.encryptRawBlock(block);
+        byte[] digest = DavoHash512.hash(block);
+        byte[] signature = crypto.signDigest(digest);
+
+        // Ein voller Block druckbarer Text für die öffentlichen Methoden
+        StringBuilder text = new StringBuilder(block.length);
+        for (byte b : block) {
+            text.append((char) ('a' + Math.floorMod(b, 26)));
+        }
+        String plaintext = text.toString();
+        String ciphertext = crypto.encrypt(plaintext);
+
+        double encryptOps = opsPerSecond(() -> crypto.encryptRawBlock(block));
+        double decryptOps = opsPerSecond(() -> crypto.decryptRawBlock(cipherBlock));
+        double encryptCallOps = opsPerSecond(() -> crypto.encrypt(plaintext));
+        // decryptVerified entspricht decrypt() ohne die Konsolenausgabe pro Aufruf
+        double decryptCallOps = opsPerSecond(() -> crypto.decryptVerified(ciphertext));
+        double signMillis = 1000.0 / opsPerSecond(() -> crypto.signDigest(digest));
+        double verifyMillis = 1000.0 / opsPerSecond(() -> crypto.verifyDigest(digest, signature));
+
+        System.out.printf("%-6d %12.1f %12d %12.1f %12.1f %12.1f %12.1f %12.3f %12.3f%n",
+                size.getModulusBits(), keygenMillis, block.length, encryptOps, decryptOps,
+                encryptCallOps, decryptCallOps, signMillis, verifyMillis);
+    }
+
+    private static double opsPerSecond(Runnable operation) {
+        for (int i = 0; i < WARMUP_OPERATIONS; i++) {
+            operation.run();
+        }
+
+        long operations = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            operation.run();
+            operations++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MEASURE_NANOS);
+
+        return operations * 1e9 / elapsed;
+    }
+}
@@ -0,0 +1,59 @@
+package org.example;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link DavoCryptService} im selben Prozess. Hält die geladenen Schlüsselkontexte und dient
+ * sowohl dem Daemon als Backend als auch Tests als lokaler Ersatz für den {@link DavoCryptClient}.
+ */
+public class LocalDavoCryptService implements DavoCryptService {
+	private final Map<String, DavoCrypt4096> contexts = new ConcurrentHashMap<>();
+
+	public void addKeyContext(String keyId, DavoCrypt4096 crypto) {
+		contexts.put(keyId, crypto);
+	}
+
+	/**
+	 * Lädt die Schlüssel aus {@code directoryPath} einmalig und registriert sie unter {@code keyId}.
+	 *
+	 * @throws IOException Wenn ein Fehler beim Lesen der Schlüssel auftritt.
+	 */
+	public void loadKeyContext(String keyId, String directoryPath) throws IOException {
+		addKeyContext(keyId, DavoCrypt4096.fromKeys(directoryPath));
+	}
+
+	@Override
+	public String encrypt(String keyId, String plaintext) {
+		return context(keyId).encrypt(plaintext);
+	}
+
+	@Override
+	public String decrypt(String keyId, String ciphertext) {
+		return context(keyId).decryptVerified(ciphertext);
+	}
+
+	@Override
+	public byte[] sign(String keyId, byte[] data) {
+		return context(keyId).sign(data);
+	}
+
+	@Override
+	public boolean verify(String keyId, byte[] data, byte[] signature) {
+		return context(keyId).verify(data, signature);
+	}
+
+	@Override
+	public byte[] hash(byte[] data) {
+		return DavoHash512.hash(data);
+	}
+
+	private DavoCrypt4096 context(String keyId) {
+		DavoCrypt4096 crypto = contexts.get(keyId);
+		if (crypto == null) {
+			throw new IllegalArgumentException("Unknown key context: " + keyId);
+		}
+		return crypto;
+	}
+}
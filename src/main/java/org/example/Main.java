@@ -4,6 +4,19 @@ import java.io.IOException;
 
 public class Main {
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("profile")) {
+            KeySizeProfiler.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("daemon")) {
+            try {
+                DavoCryptDaemon.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            } catch (IOException | InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return;
+        }
+
         DavoCrypt4096 davoCrypt = new DavoCrypt4096();
 
         //Dateien
@@ -0,0 +1,46 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DavoChunkStoreTest {
+	private static final DavoCrypt4096 crypto = TestKeys.crypto();
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void reencryptsOnlyChunksAroundOneByteEdit() throws IOException {
+		byte[] plaintext = new byte[128 * 1024];
+		new Random(31).nextBytes(plaintext);
+		Path source = directory.resolve("plain.bin");
+		Path store = directory.resolve("store");
+		Files.write(source, plaintext);
+
+		DavoChunkStore.Report initial = crypto.encryptFileIncremental(source.toString(), store.toString());
+		assertEquals(plaintext.length, initial.bytesEncrypted());
+		assertEquals(0, initial.chunksReused());
+
+		plaintext[plaintext.length / 2] ^= 0x01;
+		Files.write(source, plaintext);
+
+		DavoChunkStore.Report edited = crypto.encryptFileIncremental(source.toString(), store.toString());
+		assertEquals(plaintext.length, edited.bytesEncrypted() + edited.bytesSkipped());
+		assertTrue(edited.chunksEncrypted() >= 1 && edited.chunksEncrypted() <= 2, edited.toString());
+		assertTrue(edited.bytesEncrypted() <= 2 * ContentDefinedChunker.MAX_CHUNK_SIZE, edited.toString());
+		assertEquals(initial.chunksEncrypted() + initial.chunksReused(), edited.chunksEncrypted() + edited.chunksReused());
+
+		Path restored = directory.resolve("restored.bin");
+		crypto.decryptFileIncremental(store.toString(), restored.toString());
+		assertArrayEquals(plaintext, Files.readAllBytes(restored));
+	}
+}
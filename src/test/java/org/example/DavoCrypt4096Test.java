@@ -0,0 +1,60 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DavoCrypt4096Test {
+	private static final String JSON = "{\"id\":42,\"name\":\"Davo\",\"tags\":[\"äöü\",\"🚀\"]}\n".repeat(500);
+
+	private static final DavoCrypt4096 crypto = TestKeys.crypto();
+
+	@AfterEach
+	void disableCompression() {
+		// Das Schlüsselpaar wird mit den anderen Testklassen geteilt
+		crypto.setCompressionEnabled(false);
+	}
+
+	@Test
+	void roundTripWithoutCompression() {
+		crypto.setCompressionEnabled(false);
+		String ciphertext = crypto.encrypt(JSON);
+
+		assertTrue(ciphertext.startsWith("$2048:"));
+		assertEquals(JSON, crypto.decrypt(ciphertext));
+	}
+
+	@Test
+	void roundTripWithCompression() {
+		crypto.setCompressionEnabled(true);
+		String compressed = crypto.encrypt(JSON);
+		crypto.setCompressionEnabled(false);
+		String uncompressed = crypto.encrypt(JSON);
+
+		assertTrue(compressed.startsWith("$2048z" + JSON.getBytes(java.nio.charset.StandardCharsets.UTF_8).length + ":"));
+		assertTrue(compressed.length() < uncompressed.length() / 4);
+		assertEquals(JSON, crypto.decrypt(compressed));
+	}
+
+	@Test
+	void incompressibleTextIsNotCompressed() {
+		crypto.setCompressionEnabled(true);
+		String ciphertext = crypto.encrypt("kurz");
+
+		assertFalse(ciphertext.startsWith("$2048z"));
+		assertEquals("kurz", crypto.decrypt(ciphertext));
+	}
+
+	@Test
+	void rejectsCompressedDataLongerThanDeclared() {
+		crypto.setCompressionEnabled(true);
+		String ciphertext = crypto.encrypt(JSON);
+		String forged = ciphertext.replaceFirst("z\\d+:", "z10:");
+
+		assertThrows(SecurityException.class, () -> crypto.decrypt(forged));
+	}
+}
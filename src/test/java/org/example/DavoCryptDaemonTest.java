@@ -0,0 +1,155 @@
+package org.example;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DavoCryptDaemonTest {
+	private final LocalDavoCryptService local = new LocalDavoCryptService();
+
+	@TempDir
+	Path directory;
+
+	@BeforeEach
+	void registerKeys() {
+		local.addKeyContext("main", TestKeys.crypto());
+	}
+
+	@Test
+	void protocolFramesRoundTrip() throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(buffer);
+		DavoCryptProtocol.writeRequest(out, new DavoCryptProtocol.Request(7, DavoCryptProtocol.OP_VERIFY, "main",
+				new byte[][]{"data".getBytes(StandardCharsets.UTF_8), new byte[]{1, 2, 3}}));
+		DavoCryptProtocol.writeResponse(out, new DavoCryptProtocol.Response(7, DavoCryptProtocol.STATUS_OK, new byte[]{1}));
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer.toByteArray()));
+		DavoCryptProtocol.Request request = DavoCryptProtocol.readRequest(in);
+		assertEquals(7, request.requestId());
+		assertEquals(DavoCryptProtocol.OP_VERIFY, request.opcode());
+		assertEquals("main", request.keyId());
+		assertArrayEquals("data".getBytes(StandardCharsets.UTF_8), request.fields()[0]);
+		assertArrayEquals(new byte[]{1, 2, 3}, request.fields()[1]);
+
+		DavoCryptProtocol.Response response = DavoCryptProtocol.readResponse(in);
+		assertEquals(7, response.requestId());
+		assertEquals(DavoCryptProtocol.STATUS_OK, response.status());
+		assertArrayEquals(new byte[]{1}, response.payload());
+		assertNull(DavoCryptProtocol.readResponse(in));
+	}
+
+	@Test
+	void clientMatchesLocalService() throws IOException {
+		Path socket = directory.resolve("davo.sock");
+		byte[] data = "Hallo äöü 🚀".getBytes(StandardCharsets.UTF_8);
+
+		try (DavoCryptDaemon daemon = new DavoCryptDaemon(socket, local, 2)) {
+			daemon.start();
+			try (DavoCryptClient client = DavoCryptClient.connect(socket)) {
+				String ciphertext = client.encrypt("main", "Hallo äöü 🚀");
+				assertEquals("Hallo äöü 🚀", local.decrypt("main", ciphertext));
+				assertEquals("Hallo äöü 🚀", client.decrypt("main", local.encrypt("main", "Hallo äöü 🚀")));
+
+				byte[] signature = client.sign("main", data);
+				assertTrue(local.verify("main", data, signature));
+				assertTrue(client.verify("main", data, local.sign("main", data)));
+				assertFalse(client.verify("main", "anders".getBytes(StandardCharsets.UTF_8), signature));
+
+				assertArrayEquals(local.hash(data), client.hash(data));
+				assertThrows(IllegalArgumentException.class, () -> client.encrypt("unbekannt", "x"));
+				assertThrows(SecurityException.class, () -> client.decrypt("main", ciphertext.replaceFirst("^\\$2048", "\\$4096")));
+			}
+		}
+	}
+
+	@Test
+	void refusesToReplaceRegularFile() throws IOException {
+		Path socket = directory.resolve("davo.sock");
+		Files.writeString(socket, "precious");
+
+		try (DavoCryptDaemon daemon = new DavoCryptDaemon(socket, local, 1)) {
+			assertThrows(IOException.class, daemon::start);
+		}
+		assertEquals("precious", Files.readString(socket));
+	}
+
+	@Test
+	void replacesStaleSocketButNotLiveDaemon() throws IOException {
+		Path socket = directory.resolve("davo.sock");
+		try (ServerSocketChannel stale = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+			stale.bind(UnixDomainSocketAddress.of(socket));
+		}
+		assertTrue(Files.exists(socket));
+
+		try (DavoCryptDaemon daemon = new DavoCryptDaemon(socket, local, 1);
+			 DavoCryptDaemon second = new DavoCryptDaemon(socket, local, 1)) {
+			daemon.start();
+			assertThrows(IOException.class, second::start);
+			try (DavoCryptClient client = DavoCryptClient.connect(socket)) {
+				assertArrayEquals(local.hash(new byte[]{1}), client.hash(new byte[]{1}));
+			}
+		}
+	}
+
+	@Test
+	void refusesDirectoryAccessibleToOthers() throws IOException {
+		Path shared = Files.createDirectory(directory.resolve("shared"),
+				PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwxr-xr-x")));
+		Path created = directory.resolve("neu").resolve("davo.sock");
+
+		try (DavoCryptDaemon daemon = new DavoCryptDaemon(shared.resolve("davo.sock"), local, 1)) {
+			assertThrows(IOException.class, daemon::start);
+		}
+		try (DavoCryptDaemon daemon = new DavoCryptDaemon(created, local, 1)) {
+			daemon.start();
+			assertEquals(PosixFilePermissions.fromString("rwx------"), Files.getPosixFilePermissions(created.getParent()));
+		}
+	}
+
+	@Test
+	void answersRequestsSentBeforeHalfClose() throws IOException {
+		Path socket = directory.resolve("davo.sock");
+		byte[] data = "kurzlebiger Prozess".getBytes(StandardCharsets.UTF_8);
+
+		try (DavoCryptDaemon daemon = new DavoCryptDaemon(socket, local, 1)) {
+			daemon.start();
+			try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+				DataOutputStream out = new DataOutputStream(DavoCryptProtocol.outputStream(channel));
+				DavoCryptProtocol.writeRequest(out, new DavoCryptProtocol.Request(1, DavoCryptProtocol.OP_HASH, "", new byte[][]{data}));
+				DavoCryptProtocol.writeRequest(out, new DavoCryptProtocol.Request(2, DavoCryptProtocol.OP_HASH, "", new byte[][]{data}));
+				channel.shutdownOutput();
+
+				DataInputStream in = new DataInputStream(DavoCryptProtocol.inputStream(channel));
+				for (int i = 0; i < 2; i++) {
+					DavoCryptProtocol.Response response = DavoCryptProtocol.readResponse(in);
+					assertNotNull(response);
+					assertEquals(DavoCryptProtocol.STATUS_OK, response.status());
+					assertArrayEquals(local.hash(data), response.payload());
+				}
+				assertNull(DavoCryptProtocol.readResponse(in));
+			}
+		}
+	}
+}
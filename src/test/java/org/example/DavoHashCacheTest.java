@@ -0,0 +1,166 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DavoHashCacheTest {
+	// Weit genug zurück, damit Einträge nicht als racy gelten
+	private static final FileTime PAST = FileTime.from(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1), TimeUnit.MILLISECONDS);
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void storesDigestOnMissAndServesItOnHit() throws IOException {
+		File file = write("a.txt", "erster Inhalt", PAST);
+
+		try (DavoHashCache cache = open(16)) {
+			assertNull(cache.lookup(DavoHashCache.FileKey.of(file)));
+			byte[] digest = DavoHash512.hashFileCached(file, cache);
+
+			assertArrayEquals(DavoHash512.hashFile(file), digest);
+			assertArrayEquals(digest, cache.lookup(DavoHashCache.FileKey.of(file)));
+			assertArrayEquals(digest, DavoHash512.hashFileCached(file, cache));
+		}
+	}
+
+	@Test
+	void metadataChangeIsAMiss() throws IOException {
+		File file = write("a.txt", "erster Inhalt", PAST);
+
+		try (DavoHashCache cache = open(16)) {
+			DavoHash512.hashFileCached(file, cache);
+
+			write("a.txt", "anderer, längerer Inhalt", PAST);
+			assertNull(cache.lookup(DavoHashCache.FileKey.of(file)));
+			assertArrayEquals(DavoHash512.hashFile(file), DavoHash512.hashFileCached(file, cache));
+
+			Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(PAST.toMillis() - 1000));
+			assertNull(cache.lookup(DavoHashCache.FileKey.of(file)));
+		}
+	}
+
+	@Test
+	void forceVerifyRehashesDespiteMatchingMetadata() throws IOException {
+		File file = write("a.txt", "Inhalt A", PAST);
+
+		try (DavoHashCache cache = open(16)) {
+			byte[] stale = DavoHash512.hashFileCached(file, cache);
+
+			// Gleich große Änderung mit zurückgesetzter mtime: Metadaten bleiben identisch
+			write("a.txt", "Inhalt B", PAST);
+			assertArrayEquals(stale, DavoHash512.hashFileCached(file, cache));
+
+			byte[] fresh = DavoHash512.hashFileCached(file, cache, true);
+			assertArrayEquals(DavoHash512.hashFile(file), fresh);
+			assertFalse(Arrays.equals(stale, fresh));
+			assertArrayEquals(fresh, DavoHash512.hashFileCached(file, cache));
+		}
+	}
+
+	@Test
+	void doesNotCacheRecentlyModifiedFiles() throws IOException {
+		File file = write("a.txt", "gerade geschrieben", FileTime.fromMillis(System.currentTimeMillis()));
+
+		try (DavoHashCache cache = open(16)) {
+			assertArrayEquals(DavoHash512.hashFile(file), DavoHash512.hashFileCached(file, cache));
+			assertNull(cache.lookup(DavoHashCache.FileKey.of(file)));
+		}
+	}
+
+	@Test
+	void entriesSurviveReopen() throws IOException {
+		File file = write("a.txt", "dauerhaft", PAST);
+
+		byte[] digest;
+		try (DavoHashCache cache = open(16)) {
+			digest = DavoHash512.hashFileCached(file, cache);
+		}
+		try (DavoHashCache cache = open(16)) {
+			assertArrayEquals(digest, cache.lookup(DavoHashCache.FileKey.of(file)));
+		}
+
+		// Andere Kapazität verwirft den Index
+		try (DavoHashCache cache = open(32)) {
+			assertNull(cache.lookup(DavoHashCache.FileKey.of(file)));
+		}
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedAtCapacity() throws IOException {
+		Path index = directory.resolve("cache.idx");
+		File first = write("first.txt", "eins", PAST);
+		File second = write("second.txt", "zwei", PAST);
+
+		try (DavoHashCache cache = new DavoHashCache(index, 1)) {
+			DavoHash512.hashFileCached(first, cache);
+			long indexLength = Files.size(index);
+
+			DavoHash512.hashFileCached(second, cache);
+			assertNull(cache.lookup(DavoHashCache.FileKey.of(first)));
+			assertNotNull(cache.lookup(DavoHashCache.FileKey.of(second)));
+			assertEquals(indexLength, Files.size(index));
+		}
+	}
+
+	@Test
+	void secondInstanceIsLockedOut() throws IOException {
+		try (DavoHashCache cache = open(16)) {
+			assertThrows(IOException.class, () -> open(16));
+		}
+		open(16).close();
+	}
+
+	@Test
+	void corruptedEntryFailsChecksum() throws IOException {
+		Path index = directory.resolve("cache.idx");
+		File file = write("a.txt", "Inhalt", PAST);
+
+		try (DavoHashCache cache = new DavoHashCache(index, 1)) {
+			DavoHash512.hashFileCached(file, cache);
+		}
+
+		// Bei einem Slot liegt das letzte Digest-Byte am Dateiende
+		try (FileChannel channel = FileChannel.open(index, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer last = ByteBuffer.allocate(1);
+			channel.read(last, channel.size() - 1);
+			last.put(0, (byte) (last.get(0) ^ 0x01)).rewind();
+			channel.write(last, channel.size() - 1);
+		}
+
+		try (DavoHashCache cache = new DavoHashCache(index, 1)) {
+			assertNull(cache.lookup(DavoHashCache.FileKey.of(file)));
+			assertArrayEquals(DavoHash512.hashFile(file), DavoHash512.hashFileCached(file, cache));
+		}
+	}
+
+	private DavoHashCache open(int maxEntries) throws IOException {
+		return new DavoHashCache(directory.resolve("cache.idx"), maxEntries);
+	}
+
+	private File write(String name, String content, FileTime mtime) throws IOException {
+		Path path = directory.resolve(name);
+		Files.writeString(path, content, StandardCharsets.UTF_8);
+		Files.setLastModifiedTime(path, mtime);
+		return path.toFile();
+	}
+}
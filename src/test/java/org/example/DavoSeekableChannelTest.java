@@ -0,0 +1,81 @@
+package org.example;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DavoSeekableChannelTest {
+	private static final DavoCrypt4096 crypto = TestKeys.crypto();
+	private static byte[] plaintext;
+
+	@TempDir
+	Path directory;
+
+	@BeforeAll
+	static void generatePlaintext() {
+		plaintext = new byte[50_000];
+		new Random(4096).nextBytes(plaintext);
+	}
+
+	@Test
+	void readsArbitraryRanges() throws IOException {
+		Path encrypted = encrypt();
+
+		try (DavoSeekableChannel channel = crypto.openSeekable(encrypted.toString())) {
+			assertEquals(plaintext.length, channel.size());
+			assertArrayEquals(Arrays.copyOfRange(plaintext, 12_345, 13_345), read(channel, 12_345, 1000));
+			assertArrayEquals(Arrays.copyOfRange(plaintext, 0, 10), read(channel, 0, 10));
+			assertArrayEquals(Arrays.copyOfRange(plaintext, plaintext.length - 100, plaintext.length),
+					read(channel, plaintext.length - 100, 100));
+			assertEquals(-1, channel.position(plaintext.length).read(ByteBuffer.allocate(1)));
+		}
+	}
+
+	@Test
+	void rejectsTamperedSegment() throws IOException {
+		Path encrypted = encrypt();
+
+		// Letztes Byte der Datei gehört zum letzten Segment
+		try (FileChannel file = FileChannel.open(encrypted, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer last = ByteBuffer.allocate(1);
+			file.read(last, file.size() - 1);
+			last.put(0, (byte) (last.get(0) ^ 0x01)).rewind();
+			file.write(last, file.size() - 1);
+		}
+
+		try (DavoSeekableChannel channel = crypto.openSeekable(encrypted.toString())) {
+			assertArrayEquals(Arrays.copyOfRange(plaintext, 0, 100), read(channel, 0, 100));
+			assertThrows(SecurityException.class, () -> read(channel, plaintext.length - 1, 1));
+		}
+	}
+
+	private Path encrypt() throws IOException {
+		Path source = directory.resolve("plain.bin");
+		Path encrypted = directory.resolve("plain.davo");
+		Files.write(source, plaintext);
+		crypto.encryptFileSeekable(source.toString(), encrypted.toString());
+		return encrypted;
+	}
+
+	private static byte[] read(DavoSeekableChannel channel, long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		channel.position(position);
+		while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+			// weiterlesen, bis der Puffer voll ist
+		}
+		return buffer.array();
+	}
+}
@@ -0,0 +1,18 @@
+package org.example;
+
+/**
+ * Gemeinsames 2048-Bit-Schlüsselpaar der Tests; die Schlüsselgenerierung läuft nur einmal pro Testlauf.
+ */
+final class TestKeys {
+	private static DavoCrypt4096 crypto;
+
+	private TestKeys() {
+	}
+
+	static synchronized DavoCrypt4096 crypto() {
+		if (crypto == null) {
+			crypto = new DavoCrypt4096(KeySize.BITS_2048);
+		}
+		return crypto;
+	}
+}